@@ -0,0 +1,28 @@
+/**
+ * Thrown when the micro-inverters of a system can not be landed on the
+ * selected combiner, aggregator or load center.
+ *
+ * @author JackSteketee
+ *
+ */
+public class BranchCircuitException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	String equipment;
+	int micros;
+	int microsPerBranch;
+	int branchesNeeded;
+	int capacity;
+
+	public BranchCircuitException(String equipment, int micros, int microsPerBranch, int branchesNeeded,
+			int capacity) {
+		super(micros + " micros at " + microsPerBranch + " per 20A branch need " + branchesNeeded
+				+ " branch circuits but the " + equipment + " can only land " + capacity + ".");
+		this.equipment = equipment;
+		this.micros = micros;
+		this.microsPerBranch = microsPerBranch;
+		this.branchesNeeded = branchesNeeded;
+		this.capacity = capacity;
+	}
+}
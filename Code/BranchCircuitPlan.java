@@ -0,0 +1,59 @@
+import java.util.ArrayList;
+
+/**
+ * Represents the assignment of an Enphase system's micro-inverters to 20A
+ * branch circuits along with the breakers, caps, Q-Cable and combining
+ * equipment the assignment needs.
+ *
+ * @author JackSteketee
+ *
+ */
+public class BranchCircuitPlan {
+
+	ArrayList<Branch> branches = new ArrayList<Branch>();
+	String equipment;
+	boolean aggregator;
+	int capacity;
+
+	int breakerCount;
+
+	// filled in by the CablingEngine
+	int qCablePortrait;
+	int qCableLandscape;
+	int sealingCaps;
+	int terminatorCaps;
+
+	/**
+	 * A single 20A branch circuit. Each segment is the part of a panel row
+	 * that is cabled on this branch.
+	 */
+	public static class Branch {
+		ArrayList<PanelRow> segments = new ArrayList<PanelRow>();
+		int micros;
+
+		int portraitConnectors;
+		int landscapeConnectors;
+		int cableSegments;
+		int sealingCaps;
+		int terminatorCaps;
+
+		public void add(PanelRow segment) {
+			segments.add(segment);
+			micros += segment.length;
+		}
+	}
+
+	public String toString() {
+		String s = branches.size() + " branch circuit(s) landed on " + equipment + ":";
+		for (int i = 0; i < branches.size(); i++) {
+			Branch b = branches.get(i);
+			s += "\nBranch " + (i + 1) + ": " + b.micros + " micros in";
+			for (PanelRow r : b.segments)
+				s += " " + r.length + "(" + r.array + ")";
+			s += " - " + b.portraitConnectors + " portrait + " + b.landscapeConnectors + " landscape connectors, "
+					+ b.cableSegments + " cable segment(s), " + b.sealingCaps + " sealing cap(s), "
+					+ b.terminatorCaps + " terminator cap(s)";
+		}
+		return s;
+	}
+}
@@ -0,0 +1,96 @@
+import java.util.List;
+
+/**
+ * Assigns the panels of an Enphase system to 20A branch circuits. The fewest
+ * possible branches are used and the micros are spread evenly between them.
+ * Panel rows are walked in layout order so a row is only split where a
+ * branch fills up. The number of branches is then checked against what the
+ * selected combiner, aggregator or load center can land. The cabling of each
+ * branch is worked out afterwards by the CablingEngine.
+ *
+ * @author JackSteketee
+ *
+ */
+public class BranchCircuitSolver {
+
+	/**
+	 * Returns the number of micro-inverters allowed on a 20A branch circuit.
+	 *
+	 * @param microType - the micro-inverter model, e.g. IQ7, IQ7+ or IQ7X.
+	 */
+	public static int microsPerBranch(String microType) {
+		if (microType.contains("+"))
+			return 13;
+		if (microType.toLowerCase().contains("x"))
+			return 12;
+		return 16;
+	}
+
+	/**
+	 * Assigns every panel row to branch circuits.
+	 *
+	 * @param rows       - the panel rows of every array in the system.
+	 * @param micros     - the number of micro-inverters being ordered.
+	 * @param microType  - the micro-inverter model.
+	 * @param systemType - the system type from System Info which selects the
+	 *                   combining equipment.
+	 * @return the branch circuit plan.
+	 * @throws PanelLayoutException   if the rows don't hold exactly the micros
+	 *                                being ordered.
+	 * @throws BranchCircuitException if the branches can not be landed on the
+	 *                                selected equipment.
+	 */
+	public static BranchCircuitPlan solve(List<PanelRow> rows, int micros, String microType, String systemType) {
+		BranchCircuitPlan plan = new BranchCircuitPlan();
+		int limit = microsPerBranch(microType);
+		int layoutPanels = 0;
+		for (PanelRow r : rows)
+			layoutPanels += r.length;
+		if (layoutPanels != micros)
+			throw new PanelLayoutException(layoutPanels, micros);
+		int branchCount = (int) Math.ceil((double) micros / limit);
+
+		systemType = systemType.toLowerCase();
+		if (systemType.contains("iq combiner")) {
+			plan.equipment = "IQ Combiner";
+			plan.capacity = 4;
+		} else if (systemType.contains("envoy")) {
+			plan.equipment = "Envoy";
+			plan.capacity = 3;
+			plan.aggregator = branchCount > 1;
+			if (plan.aggregator)
+				plan.equipment = "Envoy with Aggregator";
+		} else if (systemType.contains("load center")) {
+			plan.equipment = "Load Center";
+			plan.capacity = 5;
+		} else {
+			plan.equipment = "Envoy";
+			plan.capacity = Integer.MAX_VALUE;
+		}
+		if (branchCount > plan.capacity)
+			throw new BranchCircuitException(plan.equipment, micros, limit, branchCount, plan.capacity);
+
+		// the first (micros % branchCount) branches take one extra micro
+		int rowIndex = 0;
+		int rowUsed = 0;
+		for (int b = 0; b < branchCount; b++) {
+			BranchCircuitPlan.Branch branch = new BranchCircuitPlan.Branch();
+			int size = micros / branchCount + (b < micros % branchCount ? 1 : 0);
+			while (branch.micros < size) {
+				PanelRow r = rows.get(rowIndex);
+				int take = Math.min(r.length - rowUsed, size - branch.micros);
+				if (take > 0)
+					branch.add(new PanelRow(r.array, r.landscape, take));
+				rowUsed += take;
+				if (rowUsed == r.length) {
+					rowIndex++;
+					rowUsed = 0;
+				}
+			}
+			plan.branches.add(branch);
+		}
+
+		plan.breakerCount = branchCount;
+		return plan;
+	}
+}
@@ -0,0 +1,55 @@
+/**
+ * Works out the Q-Cable needed by each branch circuit of an Enphase system
+ * from the panel rows assigned to it, replacing the totals that used to be
+ * read from the spreadsheet.
+ *
+ * Each part of a row on a branch is one cable segment with a connector for
+ * every micro, using portrait or landscape Q-Cable to match the panels.
+ * When a branch continues onto another row the connector spanning the gap
+ * is left unused and sealed with a sealing cap. The far end of every branch
+ * gets a terminator cap.
+ *
+ * @author JackSteketee
+ *
+ */
+public class CablingEngine {
+
+	/**
+	 * Fills in the connectors, cable segments and caps of every branch and
+	 * the totals of the plan in a single pass over the branch segments.
+	 *
+	 * @param plan - the branch circuit plan from the BranchCircuitSolver.
+	 */
+	public static void cable(BranchCircuitPlan plan) {
+		plan.qCablePortrait = 0;
+		plan.qCableLandscape = 0;
+		plan.sealingCaps = 0;
+		plan.terminatorCaps = 0;
+
+		for (BranchCircuitPlan.Branch b : plan.branches) {
+			b.portraitConnectors = 0;
+			b.landscapeConnectors = 0;
+			b.cableSegments = 0;
+			b.sealingCaps = 0;
+
+			for (PanelRow segment : b.segments) {
+				int connectors = segment.length;
+				if (b.cableSegments > 0) {
+					connectors++;
+					b.sealingCaps++;
+				}
+				if (segment.landscape)
+					b.landscapeConnectors += connectors;
+				else
+					b.portraitConnectors += connectors;
+				b.cableSegments++;
+			}
+			b.terminatorCaps = b.cableSegments > 0 ? 1 : 0;
+
+			plan.qCablePortrait += b.portraitConnectors;
+			plan.qCableLandscape += b.landscapeConnectors;
+			plan.sealingCaps += b.sealingCaps;
+			plan.terminatorCaps += b.terminatorCaps;
+		}
+	}
+}
@@ -0,0 +1,95 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+
+/**
+ * Represents a material order read back from a formatted Order_History
+ * report. Holds the customer header, every part line grouped by category and,
+ * for costed reports, the category totals and price per watt.
+ *
+ * @author JackSteketee
+ *
+ */
+public class HistoricalOrder {
+
+	String fileName;
+	String generatedOn = "";
+	String customerName = "";
+	String leadSource = "";
+	String deliveryDate = "";
+	String address = "";
+	boolean costed;
+
+	ArrayList<Line> lines = new ArrayList<Line>();
+	LinkedHashMap<String, Double> categoryTotal = new LinkedHashMap<String, Double>();
+	LinkedHashMap<String, Double> categoryPpw = new LinkedHashMap<String, Double>();
+	double totalCost;
+	double totalPpw;
+
+	// report lines that none of the patterns recognised, with their line number
+	ArrayList<String> unparsed = new ArrayList<String>();
+
+	public HistoricalOrder(String fileName) {
+		this.fileName = fileName;
+	}
+
+	/**
+	 * Returns true if nothing of an order was found in the report.
+	 */
+	public boolean isEmpty() {
+		return customerName.isEmpty() && lines.isEmpty() && categoryTotal.isEmpty() && !costed;
+	}
+
+	/**
+	 * A single part line of a report. The prices are only present when the
+	 * report was generated with costs, otherwise they are zero.
+	 */
+	public static class Line {
+		String category;
+		int quantity;
+		String name;
+		double total;
+		double each;
+
+		public Line(String category, int quantity, String name, double total, double each) {
+			this.category = category;
+			this.quantity = quantity;
+			this.name = name;
+			this.total = total;
+			this.each = each;
+		}
+	}
+
+	/**
+	 * Returns the order as comma separated rows, one per part line followed by
+	 * one per category total and a final row for the order total.
+	 */
+	public ArrayList<String> toCsvRows() {
+		ArrayList<String> rows = new ArrayList<String>();
+		String header = csv(fileName) + "," + csv(generatedOn) + "," + csv(customerName) + ","
+				+ csv(leadSource) + "," + csv(deliveryDate) + "," + csv(address) + ",";
+
+		for (Line l : lines)
+			rows.add(header + csv(l.category) + "," + l.quantity + "," + csv(l.name) + ","
+					+ (costed ? money(l.total) + "," + money(l.each) : ",") + ",");
+
+		for (String cat : categoryTotal.keySet())
+			rows.add(header + csv(cat) + ",,Category Total," + money(categoryTotal.get(cat)) + ",,"
+					+ money(categoryPpw.get(cat)));
+
+		if (costed)
+			rows.add(header + "Total,,Total Cost," + money(totalCost) + ",," + money(totalPpw));
+		return rows;
+	}
+
+	// plain two decimal amounts, never grouped or in scientific notation
+	private static String money(double d) {
+		return String.format(Locale.ROOT, "%.2f", d);
+	}
+
+	private static String csv(String s) {
+		if (s.contains(",") || s.contains("\""))
+			return "\"" + s.replace("\"", "\"\"") + "\"";
+		return s;
+	}
+}
@@ -0,0 +1,338 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.HashSet;
+
+/**
+ * A read only parts catalog shared by every running copy of the tool. The
+ * catalog holds the supplier price and package quantity of each part and
+ * overrides the prices in a project's parts list, so new prices can be
+ * published once instead of re-exporting every template.
+ *
+ * The catalog file is memory mapped, so every process reads the same pages
+ * and a lookup reads the price straight from the mapping without parsing or
+ * creating objects per part. The file is laid out as:
+ *
+ * header - magic, part count, index slots, string pool offset and the 16
+ * character catalog version.
+ *
+ * records - one 40 byte record per part: the offset and length of the
+ * category, name and simple name in the string pool, the package quantity
+ * and the price.
+ *
+ * index - an open addressing hash table of record numbers keyed on the
+ * lower case category and simple name.
+ *
+ * string pool - the UTF-8 bytes of every string.
+ *
+ * New prices are published by writing a new file and moving it over the old
+ * one, so a running process keeps reading a complete catalog and picks up
+ * the new one the next time it refreshes.
+ *
+ * Usage: java MappedCatalog [template directory] [catalog file]
+ *
+ * @author JackSteketee
+ *
+ */
+public class MappedCatalog {
+
+	static final String DEFAULT_FILE = "Parts_Catalog.bin";
+	static final int MAGIC = 0x53504331;
+	static final int HEADER = 32;
+	static final int RECORD = 40;
+
+	Path file;
+	Object fileKey;
+	long modified;
+	MappedByteBuffer buf;
+	int count;
+	int slots;
+	int indexOffset;
+	int poolOffset;
+
+	private MappedCatalog(Path file) {
+		this.file = file;
+	}
+
+	/**
+	 * Publishes the parts list of a template as the shared catalog.
+	 */
+	public static void main(String[] args) {
+		String templateDir = args.length > 0 ? args[0] : "Solar Ordering Template/";
+		String catalogFile = args.length > 1 ? args[1] : DEFAULT_FILE;
+		if (!templateDir.endsWith("/"))
+			templateDir += "/";
+
+		try {
+			Template template = Template.load(templateDir);
+			publish(template.partsList, Paths.get(catalogFile));
+			MappedCatalog catalog = open(Paths.get(catalogFile));
+			System.out.println("Published " + catalog.count + " parts to " + catalogFile + " (version "
+					+ catalog.version() + ")");
+		} catch (TemplateException e) {
+			System.out.println(SolarOrderingTool.errorBox(e.getMessage()));
+			System.exit(1);
+		} catch (IOException e) {
+			System.out.println(SolarOrderingTool.errorBox(catalogFile + ": " + e.getMessage()));
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Maps a catalog file.
+	 *
+	 * @throws IOException if the file can't be read or is not a catalog.
+	 */
+	public static MappedCatalog open(Path file) throws IOException {
+		MappedCatalog c = new MappedCatalog(file);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+			c.fileKey = attrs.fileKey();
+			c.modified = attrs.lastModifiedTime().toMillis();
+			if (channel.size() < HEADER)
+				throw new IOException("not a parts catalog");
+			c.buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (c.buf.getInt(0) != MAGIC)
+			throw new IOException("not a parts catalog");
+		c.count = c.buf.getInt(4);
+		c.slots = c.buf.getInt(8);
+		c.poolOffset = c.buf.getInt(12);
+		c.check();
+		return c;
+	}
+
+	/**
+	 * Checks that every record and index slot points inside the file, so a
+	 * damaged catalog is rejected when it is opened instead of failing or
+	 * looping on a later lookup.
+	 *
+	 * @throws IOException if anything is out of place.
+	 */
+	private void check() throws IOException {
+		long size = buf.capacity();
+		// in longs so a damaged count or slots can't overflow past the checks
+		if (count < 0 || slots < 2 || Integer.bitCount(slots) != 1 || slots <= count
+				|| poolOffset != HEADER + (long) count * RECORD + (long) slots * 4 || poolOffset > size)
+			throw new IOException("parts catalog is damaged");
+		indexOffset = HEADER + count * RECORD;
+
+		for (int r = 0; r < count; r++) {
+			for (int field = 0; field < 24; field += 8) {
+				int at = HEADER + r * RECORD + field;
+				long offset = buf.getInt(at);
+				long length = buf.getInt(at + 4);
+				if (length < 0 || offset < poolOffset || offset + length > size)
+					throw new IOException("parts catalog is damaged");
+			}
+		}
+		for (int slot = 0; slot < slots; slot++) {
+			int r = buf.getInt(indexOffset + slot * 4);
+			if (r < 0 || r > count)
+				throw new IOException("parts catalog is damaged");
+		}
+	}
+
+	/**
+	 * Maps the catalog in the working directory if one has been published.
+	 *
+	 * @return the catalog or null if there is none.
+	 * @throws IOException if the catalog can't be read.
+	 */
+	public static MappedCatalog openIfPublished() throws IOException {
+		Path file = Paths.get(DEFAULT_FILE);
+		return Files.exists(file) ? open(file) : null;
+	}
+
+	/**
+	 * Returns the current catalog, mapping the file again if a new catalog has
+	 * been published since this one was opened. Keeps using this catalog if
+	 * the new one can't be read.
+	 */
+	public MappedCatalog refresh() {
+		try {
+			BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+			if (attrs.lastModifiedTime().toMillis() == modified
+					&& (fileKey == null || fileKey.equals(attrs.fileKey())))
+				return this;
+			return open(file);
+		} catch (IOException e) {
+			return this;
+		}
+	}
+
+	/**
+	 * Returns the version of the parts list the catalog was published from.
+	 */
+	public String version() {
+		byte[] b = new byte[16];
+		for (int i = 0; i < 16; i++)
+			b[i] = buf.get(16 + i);
+		return new String(b, StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Returns the record number of a part or -1 if it is not in the catalog.
+	 * Category and simple name are matched ignoring case.
+	 */
+	public int find(String category, String simpleName) {
+		byte[] cat = category.trim().toLowerCase().getBytes(StandardCharsets.UTF_8);
+		byte[] simple = simpleName.trim().toLowerCase().getBytes(StandardCharsets.UTF_8);
+		int mask = slots - 1;
+		int slot = hash(cat, simple) & mask;
+		// every slot at most once, even if the table has no empty slot
+		for (int probe = 0; probe < slots; probe++, slot = (slot + 1) & mask) {
+			int r = buf.getInt(indexOffset + slot * 4) - 1;
+			if (r < 0)
+				return -1;
+			if (poolEquals(r, 0, cat) && poolEquals(r, 16, simple))
+				return r;
+		}
+		return -1;
+	}
+
+	public double price(int record) {
+		return buf.getDouble(HEADER + record * RECORD + 32);
+	}
+
+	public int pkgQty(int record) {
+		return buf.getInt(HEADER + record * RECORD + 24);
+	}
+
+	public String name(int record) {
+		return poolString(record, 8);
+	}
+
+	/**
+	 * Replaces the price and package quantity of a part with the catalog's if
+	 * the catalog has the part.
+	 *
+	 * @return true if the part was found.
+	 */
+	public boolean apply(Part p) {
+		int r = find(p.category, p.simpleName);
+		if (r < 0)
+			return false;
+		p.price = price(r);
+		p.pkgQty = pkgQty(r);
+		return true;
+	}
+
+	/**
+	 * Writes the parts of a parts list table to a new catalog file and moves
+	 * it over the old one. When a category and simple name appear more than
+	 * once the first part is used, the same as when ordering.
+	 */
+	public static void publish(TemplateFile partsList, Path target) throws IOException {
+		ArrayList<String[]> parts = new ArrayList<String[]>();
+		HashSet<String> keys = new HashSet<String>();
+		for (int i = 2; i < partsList.rows.size(); i++) {
+			String category = partsList.cell(i, 0).trim().toLowerCase();
+			String simpleName = partsList.cell(i, 6).trim().toLowerCase();
+			if (category.isEmpty() || !keys.add(category + "\0" + simpleName))
+				continue;
+			parts.add(new String[] { category, partsList.cell(i, 1), simpleName, partsList.cell(i, 2),
+					partsList.cell(i, 4).replace("$", "").replace(",", "") });
+		}
+
+		// at most half full so probes stay short
+		int slots = 2;
+		while (slots < parts.size() * 2)
+			slots <<= 1;
+		int indexOffset = HEADER + parts.size() * RECORD;
+		int poolOffset = indexOffset + slots * 4;
+
+		ByteBuffer records = ByteBuffer.allocate(poolOffset);
+		ByteArrayOutputStream pool = new ByteArrayOutputStream();
+		records.putInt(0, MAGIC);
+		records.putInt(4, parts.size());
+		records.putInt(8, slots);
+		records.putInt(12, poolOffset);
+		byte[] version = OrderCache.catalogVersion(partsList).getBytes(StandardCharsets.US_ASCII);
+		for (int i = 0; i < 16; i++)
+			records.put(16 + i, version[i]);
+
+		for (int r = 0; r < parts.size(); r++) {
+			String[] p = parts.get(r);
+			int at = HEADER + r * RECORD;
+			for (int s = 0; s < 3; s++) {
+				byte[] b = p[s].getBytes(StandardCharsets.UTF_8);
+				records.putInt(at + s * 8, poolOffset + pool.size());
+				records.putInt(at + s * 8 + 4, b.length);
+				pool.write(b, 0, b.length);
+			}
+			try {
+				records.putInt(at + 24, Integer.parseInt(p[3]));
+				records.putDouble(at + 32, Double.parseDouble(p[4]));
+			} catch (NumberFormatException e) {
+				throw new IOException("part \"" + p[1] + "\" has an invalid package quantity or price");
+			}
+
+			int slot = hash(p[0].getBytes(StandardCharsets.UTF_8), p[2].getBytes(StandardCharsets.UTF_8))
+					& (slots - 1);
+			while (records.getInt(indexOffset + slot * 4) != 0)
+				slot = (slot + 1) & (slots - 1);
+			records.putInt(indexOffset + slot * 4, r + 1);
+		}
+
+		// write next to the target so the move is a rename on the same file system
+		Path dir = target.toAbsolutePath().getParent();
+		Path tmp = Files.createTempFile(dir, "tmp", ".part");
+		try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+			ByteBuffer poolBytes = ByteBuffer.wrap(pool.toByteArray());
+			while (records.hasRemaining())
+				channel.write(records);
+			while (poolBytes.hasRemaining())
+				channel.write(poolBytes);
+			channel.force(true);
+		}
+		try {
+			// temporary files are private but every estimator has to read the catalog
+			Files.setPosixFilePermissions(tmp, PosixFilePermissions.fromString("rw-r--r--"));
+		} catch (UnsupportedOperationException e) {
+			// not a POSIX file system
+		}
+		Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	// FNV-1a over the category, a separator and the simple name
+	private static int hash(byte[] category, byte[] simpleName) {
+		int h = 0x811c9dc5;
+		for (byte b : category)
+			h = (h ^ (b & 0xff)) * 0x01000193;
+		h = h * 0x01000193;
+		for (byte b : simpleName)
+			h = (h ^ (b & 0xff)) * 0x01000193;
+		return h ^ (h >>> 16);
+	}
+
+	private boolean poolEquals(int record, int field, byte[] b) {
+		int at = HEADER + record * RECORD + field;
+		int offset = buf.getInt(at);
+		if (buf.getInt(at + 4) != b.length)
+			return false;
+		for (int i = 0; i < b.length; i++)
+			if (buf.get(offset + i) != b[i])
+				return false;
+		return true;
+	}
+
+	private String poolString(int record, int field) {
+		int at = HEADER + record * RECORD + field;
+		byte[] b = new byte[buf.getInt(at + 4)];
+		for (int i = 0; i < b.length; i++)
+			b[i] = buf.get(buf.getInt(at) + i);
+		return new String(b, StandardCharsets.UTF_8);
+	}
+}
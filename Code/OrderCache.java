@@ -0,0 +1,253 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.net.URISyntaxException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Caches generated parts order reports by a hash of the template inputs so
+ * re-running the tool on an unchanged export (or on a project with the same
+ * layout as an earlier one) doesn't recompute the order.
+ *
+ * The key covers the system info (excluding the customer header, which is not
+ * part of the cached reports), the rail layout and racking counts, the
+ * ballast layouts, the panel info and the parts list. Entries are stored per
+ * parts list version so a catalog change never returns stale prices. Recently
+ * used entries are kept in memory and every entry is written to disk. The
+ * disk store is limited to a number of entries, removing the least recently
+ * used first, so the reports of old parts list versions don't build up.
+ *
+ * The key also covers a hash of the running jar or class files, so a change
+ * to the part logic never returns reports cached by an older build.
+ *
+ * Console warnings printed while generating an order are not cached.
+ *
+ * @author JackSteketee
+ *
+ */
+public class OrderCache {
+
+	// hash of the running classes so reports cached by other builds are not used
+	private static String build;
+
+	Path dir;
+	int maxDiskEntries;
+	Map<String, String[]> memory;
+
+	/**
+	 * @param dir            - the directory of the on-disk store.
+	 * @param maxEntries     - the number of reports kept in memory.
+	 * @param maxDiskEntries - the number of reports kept on disk.
+	 */
+	public OrderCache(String dir, final int maxEntries, int maxDiskEntries) {
+		this.dir = Paths.get(dir);
+		this.maxDiskEntries = maxDiskEntries;
+		this.memory = new LinkedHashMap<String, String[]>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			protected boolean removeEldestEntry(Map.Entry<String, String[]> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Returns the cache key of a template: the parts list version (and the
+	 * shared catalog version when one is used) followed by a hash of the
+	 * normalized project inputs.
+	 *
+	 * @param catalog - the shared parts catalog or null if there is none.
+	 */
+	public static String key(Template t, MappedCatalog catalog) {
+		MessageDigest md = digest();
+		update(md, build());
+		for (int i = 4; i < t.systemInfo.rows.size(); i++)
+			update(md, t.systemInfo.cell(i, 1).toLowerCase());
+		for (TemplateFile f : new TemplateFile[] { t.railLayout, t.railCount, t.flatLayout, t.panelInfo })
+			for (String cell : f.cells())
+				update(md, cell.toLowerCase());
+		String version = catalogVersion(t) + (catalog != null ? "-" + catalog.version() : "");
+		return version + "/" + hex(md.digest());
+	}
+
+	/**
+	 * Returns a hash of the jar or class files the tool is running from. If
+	 * they can't be read the hash is unique to this run, so the disk store is
+	 * not reused rather than risking reports from another build.
+	 */
+	static synchronized String build() {
+		if (build != null)
+			return build;
+		MessageDigest md = digest();
+		try {
+			Path code = Paths.get(OrderCache.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+			ArrayList<Path> files = new ArrayList<Path>();
+			if (Files.isDirectory(code)) {
+				try (DirectoryStream<Path> classes = Files.newDirectoryStream(code, "*.class")) {
+					for (Path p : classes)
+						files.add(p);
+				}
+				Collections.sort(files);
+			} else {
+				files.add(code);
+			}
+			for (Path p : files) {
+				update(md, p.getFileName().toString());
+				md.update(Files.readAllBytes(p));
+			}
+		} catch (IOException | URISyntaxException | RuntimeException e) {
+			update(md, UUID.randomUUID().toString());
+		}
+		build = hex(md.digest()).substring(0, 16);
+		return build;
+	}
+
+	/**
+	 * Returns a hash of the parts list. Any change to a part, price or package
+	 * quantity results in a new version.
+	 */
+	public static String catalogVersion(Template t) {
+		return catalogVersion(t.partsList);
+	}
+
+	public static String catalogVersion(TemplateFile partsList) {
+		MessageDigest md = digest();
+		for (String cell : partsList.cells())
+			update(md, cell);
+		return hex(md.digest()).substring(0, 16);
+	}
+
+	/**
+	 * Returns the cached reports for a key as {short report, cost report} or
+	 * null if the order has not been generated before.
+	 */
+	public synchronized String[] get(String key) {
+		String[] reports = memory.get(key);
+		if (reports != null)
+			return reports;
+
+		try {
+			Path plain = dir.resolve(key + ".txt");
+			Path cost = dir.resolve(key + "_Cost.txt");
+			if (!Files.exists(plain) || !Files.exists(cost))
+				return null;
+			reports = new String[] { new String(Files.readAllBytes(plain), StandardCharsets.UTF_8),
+					new String(Files.readAllBytes(cost), StandardCharsets.UTF_8) };
+		} catch (IOException e) {
+			return null;
+		}
+		try {
+			// the modified time orders the entries for removal
+			Files.setLastModifiedTime(dir.resolve(key + "_Cost.txt"), FileTime.fromMillis(System.currentTimeMillis()));
+		} catch (IOException e) {
+			// removed by another run's prune, the reports read are still good
+		}
+		memory.put(key, reports);
+		return reports;
+	}
+
+	/**
+	 * Stores the reports of a generated order. A failure to write to disk only
+	 * means the order will be generated again next time.
+	 */
+	public synchronized void put(String key, String shortReport, String costReport) {
+		memory.put(key, new String[] { shortReport, costReport });
+		try {
+			write(dir.resolve(key + ".txt"), shortReport);
+			write(dir.resolve(key + "_Cost.txt"), costReport);
+			prune();
+		} catch (IOException | DirectoryIteratorException e) {
+			// cache is best effort
+		}
+	}
+
+	/**
+	 * Removes the least recently used entries over the disk limit along with
+	 * any parts list version directory left empty. Other runs write, rename and
+	 * remove entries at the same time, so files that disappear while listing
+	 * are skipped.
+	 */
+	private void prune() throws IOException {
+		ArrayList<Path> entries = new ArrayList<Path>();
+		try (DirectoryStream<Path> versions = Files.newDirectoryStream(dir)) {
+			for (Path version : versions) {
+				if (!Files.isDirectory(version))
+					continue;
+				try (DirectoryStream<Path> costs = Files.newDirectoryStream(version, "*_Cost.txt")) {
+					for (Path p : costs)
+						entries.add(p);
+				} catch (NoSuchFileException | DirectoryIteratorException e) {
+					// removed by another run
+				}
+			}
+		}
+		if (entries.size() <= maxDiskEntries)
+			return;
+
+		HashMap<Path, Long> used = new HashMap<Path, Long>();
+		for (Path p : entries)
+			used.put(p, lastModified(p));
+		entries.sort(Comparator.comparingLong(used::get));
+		for (Path cost : entries.subList(0, entries.size() - maxDiskEntries)) {
+			Files.deleteIfExists(cost);
+			Files.deleteIfExists(Paths.get(cost.toString().replace("_Cost.txt", ".txt")));
+			try {
+				Files.deleteIfExists(cost.getParent());
+			} catch (DirectoryNotEmptyException e) {
+				// other entries of this version are still in use
+			}
+		}
+	}
+
+	private static long lastModified(Path p) {
+		try {
+			return Files.getLastModifiedTime(p).toMillis();
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	// writes to a temporary file first so other runs never read a partial report
+	private static void write(Path file, String s) throws IOException {
+		Files.createDirectories(file.getParent());
+		Path tmp = Files.createTempFile(file.getParent(), "tmp", ".part");
+		Files.write(tmp, s.getBytes(StandardCharsets.UTF_8));
+		Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static MessageDigest digest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void update(MessageDigest md, String s) {
+		md.update(s.getBytes(StandardCharsets.UTF_8));
+		md.update((byte) 0);
+	}
+
+	private static String hex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder();
+		for (byte b : bytes)
+			sb.append(String.format("%02x", b));
+		return sb.toString();
+	}
+}
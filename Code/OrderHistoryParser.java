@@ -0,0 +1,217 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads the formatted text reports in Order_History back into structured
+ * orders so that old orders can be migrated out of the text files.
+ *
+ * Both report variants are understood. The plain report only has quantities
+ * and names while the _Cost report adds per line prices, the category totals
+ * and the price per watt. Quantities of four or more digits leave no space
+ * before the dash (e.g. "1200- Rail Bolt") which is handled as well.
+ *
+ * Each file is read line by line and the files are parsed in parallel. Lines
+ * that are not recognised are counted and reported rather than dropped
+ * silently.
+ *
+ * @author JackSteketee
+ *
+ */
+public class OrderHistoryParser {
+
+	static final String MONEY = "\\$(-?[\\d,]+\\.\\d+|NaN|-?Infinity|-?\u221E)";
+
+	static final Pattern PART_LINE = Pattern
+			.compile("^(\\d+)\\s*- (.*?)\\s*(?:" + MONEY + "\\s*\\(" + MONEY + " each\\))?$");
+	static final Pattern CATEGORY_TOTAL = Pattern
+			.compile("^(.*?)\\s*" + MONEY + "\\s*\\(ppw = " + MONEY + "\\)$");
+	static final Pattern TOTAL_COST = Pattern.compile("^Total Cost:\\s*" + MONEY + "$");
+	static final Pattern TOTAL_PPW = Pattern.compile("^Total ppW:\\s*" + MONEY + "$");
+	static final Pattern HEADER = Pattern
+			.compile("^(Project Name|Lead Source|Estimated Delivery|Address):\\s*(.*)$");
+	static final String GENERATED = "Solar Parts Order Generated on ";
+
+	public static void main(String[] args) throws IOException {
+
+		Path dir = Paths.get(args.length > 0 ? args[0] : "Order_History");
+		Path out = Paths.get(args.length > 1 ? args[1] : "Order_History.csv");
+
+		long start = System.nanoTime();
+		ArrayList<String> warnings = new ArrayList<String>();
+		ArrayList<String> failures = new ArrayList<String>();
+		int migrated;
+		try (PrintWriter w = new PrintWriter(Files.newBufferedWriter(out, StandardCharsets.UTF_8))) {
+			w.println("File,Generated,Project Name,Lead Source,Estimated Delivery,Address,"
+					+ "Category,Quantity,Name,Total,Each,ppW");
+			migrated = migrate(reports(dir), w, warnings, failures);
+		}
+
+		for (String warning : warnings)
+			System.out.println("Warning: " + warning);
+		for (String failure : failures)
+			System.out.println("Not migrated: " + failure);
+		System.out.println("Migrated " + migrated + " orders from " + dir + " to " + out + " in "
+				+ (System.nanoTime() - start) / 1000000 + "ms");
+		if (!failures.isEmpty())
+			System.exit(1);
+	}
+
+	/**
+	 * Lists the reports to migrate from a directory. When both variants of an
+	 * order exist only the _Cost report is listed since it contains everything
+	 * the plain report does. Consolidated shipment reports, which older
+	 * versions of ShipmentConsolidator saved here too, are not orders and are
+	 * left out.
+	 *
+	 * @param dir - the Order_History directory.
+	 * @return the report files sorted by name.
+	 */
+	public static List<Path> reports(Path dir) throws IOException {
+		try (Stream<Path> s = Files.list(dir)) {
+			return s.filter(p -> p.toString().endsWith(".txt"))
+					.filter(p -> !p.getFileName().toString().contains("_Shipment_"))
+					.filter(p -> p.toString().endsWith("_Cost.txt")
+							|| !Files.exists(Paths.get(p.toString().replace(".txt", "_Cost.txt"))))
+					.sorted().collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * Parses report files in parallel and writes the csv rows of each order in
+	 * file name order as soon as it and every file before it have been
+	 * parsed, so the output is the same on every run and only orders waiting
+	 * on an earlier file are held in memory.
+	 *
+	 * A file that can't be read or has no order in it is reported as a failure
+	 * and the rest are still migrated. Lines that were not recognised are
+	 * reported as warnings.
+	 *
+	 * @param files    - the report files.
+	 * @param w        - the csv output.
+	 * @param warnings - receives the files with unrecognised lines.
+	 * @param failures - receives the files that were not migrated.
+	 * @return the number of orders migrated.
+	 */
+	public static int migrate(List<Path> files, PrintWriter w, List<String> warnings, List<String> failures) {
+		int[] migrated = { 0 };
+		ArrayList<String> failed = new ArrayList<String>();
+		files.parallelStream().map(p -> {
+			try {
+				return parse(p);
+			} catch (IOException e) {
+				synchronized (failed) {
+					failed.add(p + ": " + e.getMessage());
+				}
+				return null;
+			}
+		}).forEachOrdered(order -> {
+			if (order == null)
+				return;
+			for (String row : order.toCsvRows())
+				w.println(row);
+			migrated[0]++;
+			if (!order.unparsed.isEmpty())
+				warnings.add(order.fileName + ": " + order.unparsed.size() + " line(s) not recognised, first at "
+						+ order.unparsed.get(0));
+		});
+		Collections.sort(failed);
+		failures.addAll(failed);
+		return migrated[0];
+	}
+
+	/**
+	 * Parses a single report file.
+	 *
+	 * @throws IOException if the file can't be read or has no order in it.
+	 */
+	public static HistoricalOrder parse(Path file) throws IOException {
+		try (BufferedReader r = new BufferedReader(
+				new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8))) {
+			HistoricalOrder order = parse(file.getFileName().toString(), r);
+			if (order.isEmpty())
+				throw new IOException("no order found");
+			return order;
+		}
+	}
+
+	/**
+	 * Parses a single report one line at a time.
+	 *
+	 * @param fileName - the name recorded on the parsed order.
+	 * @param r        - reader positioned at the start of the report.
+	 * @return the parsed order.
+	 */
+	public static HistoricalOrder parse(String fileName, BufferedReader r) throws IOException {
+		HistoricalOrder order = new HistoricalOrder(fileName);
+		String curCategory = "";
+		boolean inSummary = false;
+		String line;
+		int lineNumber = 0;
+		Matcher m;
+
+		while ((line = r.readLine()) != null) {
+			lineNumber++;
+			line = line.replace("\r", "").trim();
+			if (line.isEmpty())
+				continue;
+
+			if (line.startsWith(GENERATED)) {
+				order.generatedOn = line.substring(GENERATED.length()).trim();
+			} else if ((m = HEADER.matcher(line)).matches()) {
+				String value = m.group(2).trim();
+				switch (m.group(1)) {
+				case "Project Name":
+					order.customerName = value;
+					break;
+				case "Lead Source":
+					order.leadSource = value;
+					break;
+				case "Estimated Delivery":
+					order.deliveryDate = value;
+					break;
+				default:
+					order.address = value;
+				}
+			} else if ((m = TOTAL_COST.matcher(line)).matches()) {
+				order.totalCost = money(m.group(1));
+				order.costed = true;
+			} else if ((m = TOTAL_PPW.matcher(line)).matches()) {
+				order.totalPpw = money(m.group(1));
+			} else if (!inSummary && (m = PART_LINE.matcher(line)).matches()) {
+				boolean hasPrice = m.group(3) != null;
+				order.lines.add(new HistoricalOrder.Line(curCategory, Integer.parseInt(m.group(1)),
+						m.group(2), hasPrice ? money(m.group(3)) : 0, hasPrice ? money(m.group(4)) : 0));
+				if (hasPrice)
+					order.costed = true;
+			} else if (line.endsWith(":")) {
+				curCategory = line.substring(0, line.length() - 1);
+			} else if ((m = CATEGORY_TOTAL.matcher(line)).matches()) {
+				inSummary = true;
+				order.categoryTotal.put(m.group(1), money(m.group(2)));
+				order.categoryPpw.put(m.group(1), money(m.group(3)));
+			} else {
+				order.unparsed.add("line " + lineNumber + ": \"" + line + "\"");
+			}
+		}
+		return order;
+	}
+
+	private static double money(String s) {
+		if (s.contains("\u221E") || s.contains("Infinity"))
+			return s.startsWith("-") ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+		return Double.parseDouble(s.replace(",", ""));
+	}
+}
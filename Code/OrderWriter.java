@@ -0,0 +1,240 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes the order history reports and the console output on a single
+ * background thread so that generating orders never waits on the disk or the
+ * terminal.
+ *
+ * Rendered reports and console text are handed to a bounded queue. The writer
+ * thread drains everything waiting in the queue as one batch: console text is
+ * printed with a single write and the report files are written through file
+ * channels and synced to disk once per batch. A full queue blocks the threads
+ * generating orders until the writer catches up.
+ *
+ * Files never overwrite an earlier report. If a report with the same name
+ * already exists, from this run or any other, "_2", "_3" etc. is added to the
+ * name. All the files of one order get the same suffix.
+ *
+ * @author JackSteketee
+ *
+ */
+public class OrderWriter {
+
+	static final Entry CLOSE = new Entry(null, null, null);
+
+	/**
+	 * Either console text (no name) or the files of one order.
+	 */
+	static class Entry {
+		String name;
+		Map<String, String> files;
+		String text;
+
+		Entry(String name, Map<String, String> files, String text) {
+			this.name = name;
+			this.files = files;
+			this.text = text;
+		}
+	}
+
+	Path dir;
+	PrintStream console;
+	BlockingQueue<Entry> queue;
+	Thread writer;
+	ArrayList<String> errors = new ArrayList<String>();
+
+	/**
+	 * Starts the writer thread. The thread is a daemon, so close() or abort()
+	 * has to be called for the queued output to be written.
+	 *
+	 * @param dir      - the directory the reports are written to.
+	 * @param capacity - the number of reports and console messages that can
+	 *                 wait to be written.
+	 */
+	public OrderWriter(String dir, int capacity) {
+		this.dir = Paths.get(dir);
+		this.console = System.out;
+		this.queue = new ArrayBlockingQueue<Entry>(capacity);
+		this.writer = new Thread(this::run, "OrderWriter");
+		// close() waits for the output, the thread alone must not keep the JVM running
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * Queues text to be printed to the console.
+	 */
+	public void println(String text) {
+		put(new Entry(null, null, text + System.lineSeparator()));
+	}
+
+	/**
+	 * Prints an error after everything already queued, waits for it all to be
+	 * written and exits with status 1.
+	 */
+	public void abort(String message) {
+		println(message);
+		try {
+			close();
+		} catch (IOException e) {
+			System.out.println(SolarOrderingTool.errorBox(e.getMessage()));
+		}
+		System.exit(1);
+	}
+
+	/**
+	 * Queues the files of one order.
+	 *
+	 * @param name  - the file name shared by the files, e.g. the date and
+	 *              customer.
+	 * @param files - the text of each file keyed by the rest of its name, e.g.
+	 *              ".txt" and "_Cost.txt".
+	 */
+	public void write(String name, Map<String, String> files) {
+		put(new Entry(name, new LinkedHashMap<String, String>(files), null));
+	}
+
+	/**
+	 * Waits for everything queued to be written and stops the writer thread.
+	 *
+	 * @throws IOException listing every report that could not be written.
+	 */
+	public void close() throws IOException {
+		put(CLOSE);
+		boolean interrupted = false;
+		while (writer.isAlive()) {
+			try {
+				writer.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+		synchronized (errors) {
+			if (!errors.isEmpty())
+				throw new IOException(String.join("\n", errors));
+		}
+	}
+
+	// the queue is the only way to the writer thread, so interruptions don't drop output
+	private void put(Entry e) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				queue.put(e);
+				break;
+			} catch (InterruptedException ex) {
+				interrupted = true;
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	private void run() {
+		ArrayList<Entry> batch = new ArrayList<Entry>();
+		boolean closed = false;
+		while (!closed) {
+			try {
+				batch.add(queue.take());
+			} catch (InterruptedException e) {
+				continue;
+			}
+			queue.drainTo(batch);
+
+			StringBuilder text = new StringBuilder();
+			ArrayList<FileChannel> written = new ArrayList<FileChannel>();
+			for (Entry e : batch) {
+				if (e == CLOSE)
+					closed = true;
+				else if (e.name == null)
+					text.append(e.text);
+				else
+					written.addAll(writeFiles(e));
+			}
+			if (text.length() > 0) {
+				console.print(text);
+				console.flush();
+			}
+
+			// one sync per batch instead of one per file
+			for (FileChannel c : written) {
+				try {
+					c.force(true);
+					c.close();
+				} catch (IOException e) {
+					error("could not save a report: " + e.getMessage());
+				}
+			}
+			batch.clear();
+		}
+	}
+
+	/**
+	 * Creates the files of an order under the first free name and writes
+	 * them. The channels are left open to be synced with the rest of the
+	 * batch.
+	 */
+	private ArrayList<FileChannel> writeFiles(Entry e) {
+		ArrayList<FileChannel> channels = new ArrayList<FileChannel>();
+		ArrayList<String> suffixes = new ArrayList<String>(e.files.keySet());
+		try {
+			Files.createDirectories(dir);
+			for (int n = 1; channels.size() < suffixes.size(); n++) {
+				String name = e.name + (n > 1 ? "_" + n : "");
+				try {
+					for (String suffix : suffixes)
+						channels.add(FileChannel.open(dir.resolve(name + suffix), StandardOpenOption.CREATE_NEW,
+								StandardOpenOption.WRITE));
+				} catch (FileAlreadyExistsException ex) {
+					// another report has this name, remove what was created and try the next one
+					for (int i = 0; i < channels.size(); i++) {
+						channels.get(i).close();
+						Files.delete(dir.resolve(name + suffixes.get(i)));
+					}
+					channels.clear();
+				}
+			}
+
+			int i = 0;
+			for (String text : e.files.values()) {
+				ByteBuffer bytes = StandardCharsets.UTF_8.encode(text);
+				while (bytes.hasRemaining())
+					channels.get(i).write(bytes);
+				i++;
+			}
+		} catch (IOException ex) {
+			error(e.name + ": could not save the report: " + ex.getMessage());
+			for (FileChannel c : channels) {
+				try {
+					c.close();
+				} catch (IOException closeEx) {
+					// already reported
+				}
+			}
+			channels.clear();
+		}
+		return channels;
+	}
+
+	private void error(String message) {
+		synchronized (errors) {
+			errors.add(message);
+		}
+	}
+}
@@ -0,0 +1,22 @@
+/**
+ * Thrown when the panel layouts and the number of micro-inverters being
+ * ordered disagree, so branch circuits can't be planned for the micros
+ * actually bought.
+ *
+ * @author JackSteketee
+ *
+ */
+public class PanelLayoutException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	int layoutPanels;
+	int orderedMicros;
+
+	public PanelLayoutException(int layoutPanels, int orderedMicros) {
+		super("The rail and ballast layouts have " + layoutPanels + " panels but " + orderedMicros
+				+ " micros are being ordered. Make the Rail Layout match the panel count in Rail Racking Count.");
+		this.layoutPanels = layoutPanels;
+		this.orderedMicros = orderedMicros;
+	}
+}
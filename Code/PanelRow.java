@@ -0,0 +1,71 @@
+import java.util.ArrayList;
+
+/**
+ * Represents a run of panels installed side by side in a single row of an
+ * array. Rows are read from the Row Count lines of the pitched Rail Layout
+ * and from the contiguous runs of each ballast layout.
+ *
+ * @author JackSteketee
+ *
+ */
+public class PanelRow {
+
+	String array;
+	boolean landscape;
+	int length;
+
+	public PanelRow(String array, boolean landscape, int length) {
+		this.array = array;
+		this.landscape = landscape;
+		this.length = length;
+	}
+
+	/**
+	 * Returns the pitched roof rows of the Rail Layout table. The table lists
+	 * how many rows of each length (1 to 15 panels) there are for both
+	 * portrait and landscape panels.
+	 *
+	 * @param railLayout - the validated Rail Layout table.
+	 */
+	public static ArrayList<PanelRow> fromRailLayout(TemplateFile railLayout) {
+		ArrayList<PanelRow> rows = new ArrayList<PanelRow>();
+		addRows(rows, railLayout, 10, 26, "portrait", false);
+		addRows(rows, railLayout, 29, 46, "landscape", true);
+		return rows;
+	}
+
+	private static void addRows(ArrayList<PanelRow> rows, TemplateFile railLayout, int lengthRow,
+			int countRow, String array, boolean landscape) {
+		for (int col = 1; col <= 15; col++) {
+			String count = railLayout.cell(countRow, col);
+			if (count.isEmpty())
+				continue;
+			int length = Integer.parseInt(railLayout.cell(lengthRow, col));
+			for (int i = 0; i < Integer.parseInt(count); i++)
+				rows.add(new PanelRow(array, landscape, length));
+		}
+	}
+
+	/**
+	 * Returns the runs of adjacent panels in each row of a ballast layout.
+	 * Ballasted panels are always cabled in landscape.
+	 *
+	 * @param array  - the name of the ballast layout.
+	 * @param layout - the panel positions of the layout.
+	 */
+	public static ArrayList<PanelRow> fromBallastLayout(String array, boolean[][] layout) {
+		ArrayList<PanelRow> rows = new ArrayList<PanelRow>();
+		for (int i = 0; i < layout.length; i++) {
+			int length = 0;
+			for (int j = 0; j <= layout[i].length; j++) {
+				if (j < layout[i].length && layout[i][j]) {
+					length++;
+				} else if (length > 0) {
+					rows.add(new PanelRow(array, true, length));
+					length = 0;
+				}
+			}
+		}
+		return rows;
+	}
+}
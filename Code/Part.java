@@ -13,6 +13,8 @@ public class Part {
 	int quantity;
 	double price;
 	String simpleName;
+	int extraQty;
+	int unitDemand;
 
 	public Part(String category, String name, int pkgQty, int quantity, double price, String simpleName) {
 
@@ -22,6 +24,19 @@ public class Part {
 		this.quantity = quantity;
 		this.simpleName = simpleName.toLowerCase();
 		this.pkgQty = pkgQty;
+		this.extraQty = quantity;
+	}
+
+	/**
+	 * Returns the number of packages needed to cover a given number of
+	 * individual units.
+	 *
+	 * @param units - the number of individual units needed.
+	 */
+	public int packagesFor(int units) {
+		if (pkgQty > 1)
+			return (int) Math.ceil((double) units / pkgQty);
+		return units;
 	}
 
 	public String toString() {
@@ -1,5 +1,6 @@
 
 import java.util.ArrayList;
+import java.util.function.Consumer;
 
 /**
  * Represents the list of parts available for purchase. Contains methods for
@@ -14,6 +15,8 @@ public class PartsList {
 	ArrayList<String> categoryList = new ArrayList<String>();
 	ArrayList<Double> categoryCost = new ArrayList<Double>();
 	boolean verbose;
+	// where warnings and verbose output go, System.out unless an OrderWriter is used
+	Consumer<String> console = System.out::println;
 
 	// initialize part list
 	public PartsList(boolean verbose) {
@@ -32,8 +35,8 @@ public class PartsList {
 			categoryList.add(p.category);
 			categoryCost.add(p.quantity * p.price);
 		} else if (p.quantity > 0) {
-			categoryCost.set(categoryList.indexOf(p.category),
-					(double) p.price * p.quantity);
+			int i = categoryList.indexOf(p.category);
+			categoryCost.set(i, categoryCost.get(i) + p.price * p.quantity);
 		}
 	}
 
@@ -55,12 +58,8 @@ public class PartsList {
 			if (p.category.toLowerCase().contains(category.toLowerCase())) {
 				if (p.simpleName.toLowerCase()
 						.contains(simpleName.toLowerCase())) {
-					if (p.pkgQty > 1) {
-						p.quantity += Math.ceil((double) qty / p.pkgQty);
-
-					} else {
-						p.quantity += qty;
-					}
+					p.quantity += p.packagesFor(qty);
+					p.unitDemand += qty;
 					catCost = categoryCost
 							.get(categoryList.indexOf(p.category));
 					categoryCost.set(categoryList.indexOf(p.category),
@@ -72,10 +71,9 @@ public class PartsList {
 			}
 		}
 		if (!partFound)
-			System.out
-					.println(category + " - " + simpleName + " Part not found");
+			console.accept(category + " - " + simpleName + " Part not found");
 		if (verbose)
-			System.out.println(s);
+			console.accept(s);
 	}
 
 	/**
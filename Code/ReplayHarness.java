@@ -0,0 +1,206 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+
+/**
+ * Replays a corpus of recorded projects and checks that the regenerated
+ * orders still match what was archived, and that generating them hasn't
+ * become slower or more allocation heavy.
+ *
+ * Each subdirectory of the corpus is one project containing its exported
+ * template csv files (either directly or in a "Solar Ordering Template"
+ * folder) and the expected _Cost.txt report. Every project is generated
+ * repeatedly in the same JVM: a number of warm up rounds followed by measured
+ * rounds. The regenerated part lines, category totals and totals are compared
+ * against the expected report, and the median time and allocation per order
+ * are checked against the budgets.
+ *
+ * Usage: java ReplayHarness [corpus directory] [-warmup n] [-runs n]
+ * [-maxMs n] [-maxKb n]
+ *
+ * Exits with status 1 if any order changed or went over budget.
+ *
+ * @author JackSteketee
+ *
+ */
+public class ReplayHarness {
+
+	static int warmup = 20;
+	static int runs = 10;
+	static double maxMs = 50;
+	static long maxKb = 32 * 1024;
+
+	public static void main(String[] args) throws IOException {
+
+		String corpus = "Replay_Corpus";
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-warmup"))
+				warmup = Integer.parseInt(args[++i]);
+			else if (args[i].equals("-runs"))
+				runs = Integer.parseInt(args[++i]);
+			else if (args[i].equals("-maxMs"))
+				maxMs = Double.parseDouble(args[++i]);
+			else if (args[i].equals("-maxKb"))
+				maxKb = Long.parseLong(args[++i]);
+			else
+				corpus = args[i];
+		}
+		if (runs < 1) {
+			System.out.println("-runs must be at least 1");
+			System.exit(1);
+		}
+
+		File[] cases = new File(corpus).listFiles(File::isDirectory);
+		if (cases == null || cases.length == 0) {
+			System.out.println("No recorded projects found in " + corpus);
+			System.exit(1);
+		}
+		Arrays.sort(cases);
+
+		for (int i = 0; i < warmup; i++) {
+			for (File c : cases) {
+				try {
+					generate(templateDir(c));
+				} catch (TemplateException | RuntimeException e) {
+					// reported by the measured runs
+				}
+			}
+		}
+
+		boolean failed = false;
+		System.out.println(SolarOrderingTool.format("Project", "   Median ms   Median KB   Result", 40));
+		for (File c : cases) {
+			ArrayList<String> problems = new ArrayList<String>();
+			double[] ms = new double[runs];
+			long[] kb = new long[runs];
+			SolarOrderingTool order = null;
+
+			try {
+				for (int i = 0; i < runs; i++) {
+					long bytes = allocatedBytes();
+					long start = System.nanoTime();
+					order = generate(templateDir(c));
+					ms[i] = (System.nanoTime() - start) / 1e6;
+					kb[i] = (allocatedBytes() - bytes) / 1024;
+				}
+			} catch (TemplateException | RuntimeException e) {
+				problems.add(e.getMessage());
+			}
+
+			Arrays.sort(ms);
+			Arrays.sort(kb);
+			if (problems.isEmpty()) {
+				File expected = expectedReport(c);
+				if (expected == null)
+					problems.add("no _Cost.txt report to compare against");
+				else {
+					try {
+						problems.addAll(compare(OrderHistoryParser.parse(expected.toPath()), regenerated(order)));
+					} catch (IOException e) {
+						problems.add(expected.getName() + ": " + e.getMessage());
+					}
+				}
+				if (ms[runs / 2] > maxMs)
+					problems.add(String.format("median time %.2fms is over the %.2fms budget", ms[runs / 2], maxMs));
+				if (kb[runs / 2] > maxKb)
+					problems.add("median allocation " + kb[runs / 2] + "KB is over the " + maxKb + "KB budget");
+			}
+
+			failed |= !problems.isEmpty();
+			System.out.println(SolarOrderingTool.format(c.getName(), String.format("%12.2f%12d   %s", ms[runs / 2],
+					kb[runs / 2], problems.isEmpty() ? "ok" : "FAILED"), 40));
+			for (String p : problems)
+				System.out.println("    " + p);
+		}
+
+		if (failed)
+			System.exit(1);
+	}
+
+	private static SolarOrderingTool generate(String templateDir) throws TemplateException {
+		SolarOrderingTool order = new SolarOrderingTool(templateDir);
+		order.generateReports(Template.load(order.templateDir), null);
+		return order;
+	}
+
+	private static String templateDir(File c) {
+		File nested = new File(c, "Solar Ordering Template");
+		return (nested.isDirectory() ? nested : c).getPath() + "/";
+	}
+
+	private static File expectedReport(File c) {
+		File[] reports = c.listFiles((dir, name) -> name.endsWith("_Cost.txt"));
+		if (reports == null || reports.length == 0)
+			return null;
+		Arrays.sort(reports);
+		return reports[reports.length - 1];
+	}
+
+	// bytes allocated so far by every live thread, including the template loader threads
+	private static long allocatedBytes() {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		long total = 0;
+		for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds()))
+			if (bytes > 0)
+				total += bytes;
+		return total;
+	}
+
+	private static HistoricalOrder regenerated(SolarOrderingTool order) throws IOException {
+		String report = order.formatCustomerInfo() + order.partsOrderLong;
+		return OrderHistoryParser.parse("regenerated", new BufferedReader(new StringReader(report)));
+	}
+
+	/**
+	 * Compares a regenerated order against the expected one.
+	 *
+	 * @return a description of every difference found.
+	 */
+	public static ArrayList<String> compare(HistoricalOrder expected, HistoricalOrder actual) {
+		ArrayList<String> diffs = new ArrayList<String>();
+		compareHeader(diffs, "project name", expected.customerName, actual.customerName);
+		compareHeader(diffs, "lead source", expected.leadSource, actual.leadSource);
+		compareHeader(diffs, "estimated delivery", expected.deliveryDate, actual.deliveryDate);
+		compareHeader(diffs, "address", expected.address, actual.address);
+
+		LinkedHashMap<String, HistoricalOrder.Line> actualLines = new LinkedHashMap<String, HistoricalOrder.Line>();
+		for (HistoricalOrder.Line l : actual.lines)
+			actualLines.put(l.category + " - " + l.name, l);
+
+		for (HistoricalOrder.Line e : expected.lines) {
+			String key = e.category + " - " + e.name;
+			HistoricalOrder.Line a = actualLines.remove(key);
+			if (a == null)
+				diffs.add("missing " + e.quantity + " " + key);
+			else if (a.quantity != e.quantity || a.total != e.total || a.each != e.each)
+				diffs.add(key + ": expected " + e.quantity + " at " + e.each + " = " + e.total + " but got "
+						+ a.quantity + " at " + a.each + " = " + a.total);
+		}
+		for (String key : actualLines.keySet())
+			diffs.add("unexpected " + actualLines.get(key).quantity + " " + key);
+
+		for (String cat : expected.categoryTotal.keySet())
+			if (!expected.categoryTotal.get(cat).equals(actual.categoryTotal.get(cat)))
+				diffs.add(cat + " total " + expected.categoryTotal.get(cat) + " is now " + actual.categoryTotal.get(cat));
+		for (String cat : actual.categoryTotal.keySet())
+			if (!expected.categoryTotal.containsKey(cat))
+				diffs.add("unexpected " + cat + " total " + actual.categoryTotal.get(cat));
+
+		if (expected.totalCost != actual.totalCost)
+			diffs.add("total cost " + expected.totalCost + " is now " + actual.totalCost);
+		if (expected.totalPpw != actual.totalPpw)
+			diffs.add("total ppW " + expected.totalPpw + " is now " + actual.totalPpw);
+		return diffs;
+	}
+
+	private static void compareHeader(ArrayList<String> diffs, String field, String expected, String actual) {
+		if (!expected.equals(actual))
+			diffs.add(field + " \"" + expected + "\" is now \"" + actual + "\"");
+	}
+}
@@ -0,0 +1,165 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+/**
+ * Represents the consolidated supplier order for every project delivered on
+ * the same date. Instead of rounding each project up to whole packages on its
+ * own, the individual unit demand of all projects is summed and rounded once.
+ * Each project then gets a pick list of the individual units it needs.
+ *
+ * @author JackSteketee
+ *
+ */
+public class Shipment {
+
+	String deliveryDate;
+	ArrayList<SolarOrderingTool> projects = new ArrayList<SolarOrderingTool>();
+	PartsList supplierOrder = new PartsList(false);
+	int systemWattage;
+
+	// consolidated part -> units picked for each project (same order as projects)
+	LinkedHashMap<Part, int[]> picks = new LinkedHashMap<Part, int[]>();
+	// consolidated part -> packages had each project been ordered on its own
+	LinkedHashMap<Part, Integer> separatePackages = new LinkedHashMap<Part, Integer>();
+	// parts the projects list with different package quantities or prices
+	ArrayList<String> mismatches = new ArrayList<String>();
+
+	public Shipment(String deliveryDate) {
+		this.deliveryDate = deliveryDate;
+	}
+
+	public void addProject(SolarOrderingTool project) {
+		projects.add(project);
+	}
+
+	/**
+	 * Builds the supplier order and pick lists from the projects added so far.
+	 * Parts are matched across projects by category and name. A part that the
+	 * projects' parts lists give a different package quantity or price is
+	 * reported as a mismatch and only merged between the projects that agree.
+	 * Manually ordered extras from the parts list are already in packages so
+	 * they are summed as is.
+	 */
+	public void consolidate() {
+		LinkedHashMap<String, Part> consolidated = new LinkedHashMap<String, Part>();
+		LinkedHashMap<String, Integer> demand = new LinkedHashMap<String, Integer>();
+		LinkedHashMap<String, int[]> projectPicks = new LinkedHashMap<String, int[]>();
+		LinkedHashMap<String, Integer> separate = new LinkedHashMap<String, Integer>();
+		LinkedHashMap<String, Integer> firstListedBy = new LinkedHashMap<String, Integer>();
+		LinkedHashMap<String, Part> firstListed = new LinkedHashMap<String, Part>();
+		mismatches.clear();
+		systemWattage = 0;
+
+		for (int i = 0; i < projects.size(); i++) {
+			SolarOrderingTool project = projects.get(i);
+			systemWattage += project.systemWattage;
+
+			for (Part p : project.materialsToOrder.partList) {
+				String name = p.category + "\n" + p.name;
+				Part first = firstListed.get(name);
+				if (first == null) {
+					firstListed.put(name, p);
+					firstListedBy.put(name, i);
+				} else if ((first.pkgQty != p.pkgQty || first.price != p.price)
+						&& (p.quantity > 0 || first.quantity > 0)) {
+					String mismatch = p.name.trim() + ": " + terms(projects.get(firstListedBy.get(name)), first)
+							+ ", " + terms(project, p);
+					if (!mismatches.contains(mismatch))
+						mismatches.add(mismatch);
+				}
+
+				// parts are only merged when the package quantity and price agree
+				String key = name + "\n" + p.pkgQty + "\n" + p.price;
+				Part c = consolidated.get(key);
+				if (c == null) {
+					c = new Part(p.category, p.name, p.pkgQty, 0, p.price, p.simpleName);
+					consolidated.put(key, c);
+					demand.put(key, 0);
+					projectPicks.put(key, new int[projects.size()]);
+					separate.put(key, 0);
+				}
+				c.quantity += p.extraQty;
+				demand.put(key, demand.get(key) + p.unitDemand);
+				projectPicks.get(key)[i] += p.unitDemand + p.extraQty * Math.max(p.pkgQty, 1);
+				separate.put(key, separate.get(key) + p.quantity);
+			}
+		}
+
+		supplierOrder = new PartsList(false);
+		picks.clear();
+		separatePackages.clear();
+		for (String key : consolidated.keySet()) {
+			Part c = consolidated.get(key);
+			c.unitDemand = demand.get(key);
+			c.quantity += c.packagesFor(c.unitDemand);
+			supplierOrder.loadPart(c);
+			if (c.quantity > 0) {
+				picks.put(c, projectPicks.get(key));
+				separatePackages.put(c, separate.get(key));
+			}
+		}
+	}
+
+	private static String terms(SolarOrderingTool project, Part p) {
+		return project.customerName.trim() + " lists " + p.pkgQty + " per package at "
+				+ String.format("$%,.2f", p.price);
+	}
+
+	/**
+	 * Returns the number of packages saved by ordering the projects together.
+	 */
+	public int packageSavings() {
+		int saved = 0;
+		for (Part c : separatePackages.keySet())
+			saved += separatePackages.get(c) - c.quantity;
+		return saved;
+	}
+
+	public double costSavings() {
+		double saved = 0;
+		for (Part c : separatePackages.keySet())
+			saved += (separatePackages.get(c) - c.quantity) * c.price;
+		return saved;
+	}
+
+	/**
+	 * Returns the formatted supplier order followed by the pick list of each
+	 * project and the package savings.
+	 *
+	 * @param displayCost - causes the supplier order to include cost estimates.
+	 */
+	public String report(boolean displayCost) {
+		String s = SolarOrderingTool.format("Estimated Delivery:", deliveryDate, 25) + "\n"
+				+ SolarOrderingTool.format("Projects:", "" + projects.size(), 25) + "\n";
+		s += supplierOrder.partListReport(displayCost, systemWattage);
+
+		for (int i = 0; i < projects.size(); i++) {
+			s += "\n\n\nPick List - " + projects.get(i).customerName.trim() + ":\n";
+			for (Part c : picks.keySet()) {
+				int units = picks.get(c)[i];
+				if (units > 0) {
+					Part pick = new Part(c.category, c.name, c.pkgQty, units, c.price, c.simpleName);
+					s += "\n" + pick.toString();
+					if (c.pkgQty > 1)
+						s += "(individual pieces)";
+				}
+			}
+		}
+
+		s += "\n\n\nPackage Savings:\n";
+		for (Part c : separatePackages.keySet()) {
+			int saved = separatePackages.get(c) - c.quantity;
+			if (saved > 0)
+				s += "\n" + SolarOrderingTool.format(c.name, separatePackages.get(c) + " -> " + c.quantity
+						+ " (" + saved + " saved, " + String.format("$%,.2f", saved * c.price) + ")", 50);
+		}
+		if (!mismatches.isEmpty()) {
+			s += "\n\n\nNot Consolidated (parts lists differ):\n";
+			for (String m : mismatches)
+				s += "\n" + m;
+		}
+		s += "\n\nTotal Packages Saved: " + packageSavings();
+		s += "\nTotal Savings:        " + String.format("$%,.2f", costSavings()) + "\n";
+		return s;
+	}
+}
@@ -0,0 +1,126 @@
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Generates the orders for several projects at once and consolidates the
+ * projects that share a delivery date into a single supplier order. Package
+ * quantities (boxes of screws, bolts, bases etc.) are rounded once per
+ * shipment rather than once per project.
+ *
+ * Usage: java ShipmentConsolidator [template directory] [template directory]...
+ *
+ * Each template directory contains the exported csv files of one project.
+ *
+ * @author JackSteketee
+ *
+ */
+public class ShipmentConsolidator {
+
+	public static void main(String[] args) {
+
+		if (args.length == 0) {
+			System.out.println("Usage: java ShipmentConsolidator [template directory]...");
+			System.exit(1);
+		}
+
+		ArrayList<String> dirs = new ArrayList<String>();
+		for (String arg : args)
+			dirs.add(arg);
+
+		// kept apart from Order_History, which only holds project orders
+		OrderWriter out = new OrderWriter("Shipment_History/", 64);
+		try {
+			List<SolarOrderingTool> projects = generateOrders(dirs, MappedCatalog.openIfPublished(), out);
+
+			DateTimeFormatter dtfFileName = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+			LocalDateTime now = LocalDateTime.now();
+
+			for (Shipment shipment : groupByDelivery(projects).values()) {
+				shipment.consolidate();
+				String report = shipment.report(SolarOrderingTool.showExpectedCost);
+				out.println("\n\n" + report);
+
+				LinkedHashMap<String, String> files = new LinkedHashMap<String, String>();
+				files.put(".txt", report + System.lineSeparator());
+				out.write(dtfFileName.format(now) + "_Shipment_"
+						+ shipment.deliveryDate.replace("/", "-").replace(" ", "_"), files);
+			}
+		} catch (TemplateException e) {
+			out.abort(SolarOrderingTool.errorBox(e.getMessage()));
+		} catch (BranchCircuitException | PanelLayoutException | SolarEdgeSizingException e) {
+			out.abort(SolarOrderingTool.errorBox(e.getMessage()));
+		} catch (IOException e) {
+			out.abort(SolarOrderingTool.errorBox(MappedCatalog.DEFAULT_FILE + ": " + e.getMessage()));
+		} catch (RuntimeException e) {
+			// still written after everything queued, and the writer is stopped
+			out.abort(SolarOrderingTool.errorBox(e.toString()));
+		}
+
+		try {
+			out.close();
+		} catch (IOException e) {
+			System.out.println(SolarOrderingTool.errorBox(e.getMessage()));
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Generates the order of every project in parallel.
+	 *
+	 * @param templateDirs - one exported template directory per project.
+	 * @param catalog      - the shared parts catalog or null to use the
+	 *                     prices in each parts list.
+	 * @param out          - the writer the projects' console output goes
+	 *                     through.
+	 * @return the generated projects in the same order as the directories.
+	 * @throws TemplateException listing the problems found in every template.
+	 */
+	public static List<SolarOrderingTool> generateOrders(List<String> templateDirs, MappedCatalog catalog,
+			OrderWriter out) throws TemplateException {
+		ArrayList<String> errors = new ArrayList<String>();
+		boolean[] missingFile = { false };
+
+		List<SolarOrderingTool> projects = templateDirs.parallelStream().map(dir -> {
+			SolarOrderingTool project = new SolarOrderingTool(dir);
+			project.catalog = catalog;
+			project.printTo(out);
+			try {
+				project.generateOrder();
+			} catch (TemplateException e) {
+				synchronized (errors) {
+					errors.addAll(e.errors);
+					missingFile[0] |= e.missingFile;
+				}
+			}
+			return project;
+		}).collect(Collectors.toList());
+
+		if (!errors.isEmpty())
+			throw new TemplateException(errors, missingFile[0]);
+		return projects;
+	}
+
+	/**
+	 * Groups generated projects into shipments by their estimated delivery
+	 * date.
+	 *
+	 * @param projects - the generated projects.
+	 * @return the shipments keyed by delivery date in order of first
+	 *         appearance.
+	 */
+	public static LinkedHashMap<String, Shipment> groupByDelivery(List<SolarOrderingTool> projects) {
+		LinkedHashMap<String, Shipment> shipments = new LinkedHashMap<String, Shipment>();
+		for (SolarOrderingTool project : projects) {
+			String date = project.deliveryDate.trim();
+			if (!shipments.containsKey(date))
+				shipments.put(date, new Shipment(date));
+			shipments.get(date).addProject(project);
+		}
+		return shipments;
+	}
+}
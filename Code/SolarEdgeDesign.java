@@ -0,0 +1,45 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+/**
+ * Represents the inverters and strings chosen for a SolarEdge system.
+ *
+ * @author JackSteketee
+ *
+ */
+public class SolarEdgeDesign {
+
+	ArrayList<Inverter> inverters = new ArrayList<Inverter>();
+	double cost;
+
+	/**
+	 * A single inverter and the number of optimizers on each of its strings.
+	 */
+	public static class Inverter {
+		Part part;
+		int acWatts;
+		ArrayList<Integer> strings = new ArrayList<Integer>();
+
+		public Inverter(Part part, int acWatts) {
+			this.part = part;
+			this.acWatts = acWatts;
+		}
+	}
+
+	/**
+	 * Returns the number of inverters of each model.
+	 */
+	public LinkedHashMap<Part, Integer> inverterCounts() {
+		LinkedHashMap<Part, Integer> counts = new LinkedHashMap<Part, Integer>();
+		for (Inverter i : inverters)
+			counts.put(i.part, counts.containsKey(i.part) ? counts.get(i.part) + 1 : 1);
+		return counts;
+	}
+
+	public String toString() {
+		String s = inverters.size() + " inverter(s), " + String.format("$%,.2f", cost) + ":";
+		for (Inverter i : inverters)
+			s += "\n" + i.part.name.trim() + " - strings of " + i.strings;
+		return s;
+	}
+}
@@ -0,0 +1,197 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Chooses the SolarEdge HD-Wave inverters and string layout for a system
+ * instead of relying on a hand entered inverter type and count.
+ *
+ * Every combination of up to two inverter models from the parts list is
+ * evaluated in parallel. A combination is feasible when the optimizers can be
+ * split into strings of 8 to 25 (limited further by the maximum power per
+ * string) and each inverter gets a number of strings it supports without
+ * going over a 155% DC/AC ratio. The cheapest feasible combination is chosen.
+ *
+ * A "Central Inverter Type" or "SE Inverter Count" filled in on the system
+ * info limits the choice to that model or that number of inverters.
+ *
+ * @author JackSteketee
+ *
+ */
+public class SolarEdgeSizer {
+
+	static final int MIN_STRING = 8;
+	static final int MAX_STRING = 25;
+	static final double MAX_DC_AC = 1.55;
+	static final Pattern INVERTER = Pattern.compile("se(\\d+)h-us");
+
+	/**
+	 * An inverter model found in the parts list along with its limits.
+	 */
+	static class Model {
+		Part part;
+		int acWatts;
+		int minStrings;
+		int maxStrings;
+		int maxStringWatts;
+
+		Model(Part part, int acWatts) {
+			this.part = part;
+			this.acWatts = acWatts;
+			this.minStrings = acWatts >= 10000 ? 2 : 1;
+			this.maxStrings = acWatts >= 10000 ? 3 : 2;
+			this.maxStringWatts = acWatts >= 7600 ? 6000 : 5700;
+		}
+
+		double maxDcWatts() {
+			return acWatts * MAX_DC_AC;
+		}
+	}
+
+	/**
+	 * Returns the HD-Wave inverters listed in the SolarEdge category of the
+	 * parts list.
+	 */
+	public static ArrayList<Model> models(List<Part> partList) {
+		ArrayList<Model> models = new ArrayList<Model>();
+		for (Part p : partList) {
+			if (!p.category.toLowerCase().contains("solaredge"))
+				continue;
+			Matcher m = INVERTER.matcher(p.simpleName);
+			if (m.find())
+				models.add(new Model(p, Integer.parseInt(m.group(1))));
+		}
+		return models;
+	}
+
+	/**
+	 * Finds the cheapest feasible inverters and strings for a system.
+	 *
+	 * @param panelCount    - the number of panels, one optimizer per panel.
+	 * @param panelWattage  - the power of each panel.
+	 * @param partList      - the parts list to take inverters and prices from.
+	 * @param inverterType  - the only model to use, or blank for any.
+	 * @param inverterCount - the number of inverters to use, or 0 for any.
+	 * @return the chosen design.
+	 * @throws SolarEdgeSizingException if the model is not in the parts list
+	 *                                  or no combination is feasible.
+	 */
+	public static SolarEdgeDesign size(int panelCount, int panelWattage, List<Part> partList, String inverterType,
+			int inverterCount) {
+		ArrayList<Model> models = models(partList);
+		if (!inverterType.isEmpty()) {
+			// matched the same way as any other part name
+			models.removeIf(m -> !m.part.simpleName.toLowerCase().contains(inverterType.toLowerCase()));
+			if (models.isEmpty())
+				throw new SolarEdgeSizingException("Central Inverter Type \"" + inverterType
+						+ "\" is not a SolarEdge HD-Wave inverter in the parts list.", panelCount, panelWattage);
+		}
+		ArrayList<Model[]> pairs = new ArrayList<Model[]>();
+		for (int i = 0; i < models.size(); i++)
+			for (int j = i; j < models.size(); j++)
+				pairs.add(new Model[] { models.get(i), models.get(j) });
+
+		return pairs.parallelStream().map(p -> bestForPair(p[0], p[1], panelCount, panelWattage, inverterCount))
+				.filter(d -> d != null)
+				.min(Comparator.comparingDouble((SolarEdgeDesign d) -> d.cost)
+						.thenComparingInt(d -> d.inverters.size()))
+				.orElseThrow(() -> inverterType.isEmpty() && inverterCount == 0
+						? new SolarEdgeSizingException(panelCount, panelWattage)
+						: new SolarEdgeSizingException("The Central Inverter Type and SE Inverter Count entered can't take "
+								+ panelCount + " x " + panelWattage + "W panels within the string and DC/AC limits.",
+								panelCount, panelWattage));
+	}
+
+	/**
+	 * Finds the cheapest design using a inverters of m1 and b of m2, or only
+	 * m1 when they are the same model.
+	 *
+	 * Every string count from the fewest strings of 25 to the most strings of
+	 * 8 is tried. The string count sets the longest string and so how many
+	 * strings each inverter can take within its DC and string power limits.
+	 * For each number of m1 inverters the fewest m2 inverters that take the
+	 * remaining strings are used, since more would only cost more. When the
+	 * inverter count is set only splits with that many inverters are tried.
+	 *
+	 * @return the design or null if the pair can't take the optimizers.
+	 */
+	private static SolarEdgeDesign bestForPair(Model m1, Model m2, int n, int w, int count) {
+		double cost1 = m1.part.price;
+		double cost2 = m2.part.price;
+		double bestCost = 0;
+		int[] best = null;
+
+		for (int s = (n + MAX_STRING - 1) / MAX_STRING; s <= n / MIN_STRING; s++) {
+			int longest = (n + s - 1) / s;
+			int c1 = capacity(m1, longest, w);
+			int c2 = m1 == m2 ? 0 : capacity(m2, longest, w);
+
+			for (int a = 0; count > 0 ? a <= count : c1 > 0 ? a <= (s + c1 - 1) / c1 : a == 0; a++) {
+				int b;
+				if (count > 0) {
+					b = count - a;
+					if ((a > 0 && c1 == 0) || (b > 0 && c2 == 0) || a * c1 + b * c2 < s)
+						continue;
+				} else {
+					int rest = s - a * c1;
+					b = rest <= 0 ? 0 : c2 > 0 ? (rest + c2 - 1) / c2 : -1;
+				}
+				if (b < 0 || a + b == 0 || a * m1.minStrings + b * m2.minStrings > s)
+					continue;
+				double cost = a * cost1 + b * cost2;
+				if (best == null || cost < bestCost || (cost == bestCost && a + b < best[1] + best[2])) {
+					bestCost = cost;
+					best = new int[] { s, a, b, c1, c2 };
+				}
+			}
+		}
+		if (best == null)
+			return null;
+
+		SolarEdgeDesign d = layout(m1, best[1], best[3], m2, best[2], best[4], n, best[0]);
+		d.cost = bestCost;
+		return d;
+	}
+
+	/**
+	 * Returns the number of strings of a given length an inverter can take,
+	 * or 0 if it can't take strings that long.
+	 */
+	private static int capacity(Model m, int longest, int w) {
+		if (longest * w > m.maxStringWatts)
+			return 0;
+		int c = Math.min(m.maxStrings, (int) (m.maxDcWatts() / (longest * w)));
+		return c >= m.minStrings ? c : 0;
+	}
+
+	/**
+	 * Splits the optimizers into s evenly sized strings between the
+	 * inverters, each inverter taking between its minimum and its capacity.
+	 */
+	private static SolarEdgeDesign layout(Model m1, int a, int c1, Model m2, int b, int c2, int n, int s) {
+		SolarEdgeDesign d = new SolarEdgeDesign();
+		int[] capacity = new int[a + b];
+		for (int i = 0; i < a + b; i++) {
+			d.inverters.add(new SolarEdgeDesign.Inverter(i < a ? m1.part : m2.part, i < a ? m1.acWatts
+					: m2.acWatts));
+			capacity[i] = i < a ? c1 : c2;
+		}
+
+		// every inverter gets its minimum strings first, the rest go round robin
+		int string = 0;
+		for (int i = 0; i < a + b; i++)
+			for (int k = 0; k < (i < a ? m1.minStrings : m2.minStrings); k++)
+				d.inverters.get(i).strings.add(stringLength(n, s, string++));
+		for (int i = 0; string < s; i = (i + 1) % (a + b))
+			if (d.inverters.get(i).strings.size() < capacity[i])
+				d.inverters.get(i).strings.add(stringLength(n, s, string++));
+		return d;
+	}
+
+	// strings are as even as possible with the longer strings first
+	private static int stringLength(int n, int strings, int index) {
+		return n / strings + (index < n % strings ? 1 : 0);
+	}
+}
@@ -0,0 +1,28 @@
+/**
+ * Thrown when no combination of the SolarEdge inverters in the parts list
+ * can take every optimizer of a system, or the inverter type or count entered
+ * on the system info can't be used.
+ *
+ * @author JackSteketee
+ *
+ */
+public class SolarEdgeSizingException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	int panelCount;
+	int panelWattage;
+
+	public SolarEdgeSizingException(int panelCount, int panelWattage) {
+		super("No combination of SolarEdge inverters in the parts list can take " + panelCount + " x "
+				+ panelWattage + "W panels within the string and DC/AC limits.");
+		this.panelCount = panelCount;
+		this.panelWattage = panelWattage;
+	}
+
+	public SolarEdgeSizingException(String message, int panelCount, int panelWattage) {
+		super(message);
+		this.panelCount = panelCount;
+		this.panelWattage = panelWattage;
+	}
+}
@@ -1,10 +1,12 @@
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.PrintWriter;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Scanner;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * I created this solar ordering tool so that a SolarPV EPC can efficiently
@@ -35,67 +37,83 @@ public class SolarOrderingTool {
 	static boolean showExpectedCost = true;
 	static boolean verbose = false;
 
-	static String s;
-	static String[] csvArray;
-	static int a;
-	static File CSV;
-
-	static PartsList materialsToOrder = new PartsList(verbose);
-
-	static String ballastRackingType1;
-	static String ballastRackingType2;
-	static boolean[][] ballastLayout1 = new boolean[10][14];
-	static boolean[][] ballastLayout2 = new boolean[10][14];
-	static int b1Extra;
-	static int b2Extra;
-
-	static String customerName;
-	static String deliveryDate;
-	static String projectType;
-	static String address;
-
-	static String systemType;
-	static String panelType;
-	static int panelWattage;
-	static String panelLevelDeviceType;
-	static String inverterType;
-	static int inverterCount;
-	static int cellCount;
-	static int discoRating;
-	static int fuseRating;
-	static boolean consMonitor = false;
-	static boolean fuseAdapter = false;
-
-	static String attachmentType;
-	static int tiltLeg;
-	static int attachmentOverride;
-	static double panelHeight;
-	static double panelWidth;
-	static int panelThickness;
-
-	static int railCount;
-	static int spliceBarCount;
-	static int midClampCount;
-	static int stopperSleeveCount;
-	static int groundLugCount;
-	static int attachmentCount;
-
-	static int pitchedPanelCount;
-	static int ballastedPanelCount;
-	static int totalPanelCount;
-
-	static int qCablePortrait;
-	static int qCableLandscape;
-
-	static int systemWattage;
+	String s;
+	String[] csvArray;
+	int a;
+	File CSV;
+
+	String templateDir;
+	PartsList materialsToOrder;
+
+	String ballastRackingType1;
+	String ballastRackingType2;
+	boolean[][] ballastLayout1 = new boolean[10][14];
+	boolean[][] ballastLayout2 = new boolean[10][14];
+	int b1Extra;
+	int b2Extra;
+
+	String customerName;
+	String deliveryDate;
+	String projectType;
+	String address;
+
+	String systemType;
+	String panelType;
+	int panelWattage;
+	String panelLevelDeviceType;
+	String inverterType;
+	int inverterCount;
+	int cellCount;
+	int discoRating;
+	int fuseRating;
+	boolean consMonitor = false;
+	boolean fuseAdapter = false;
+
+	String attachmentType;
+	int tiltLeg;
+	int attachmentOverride;
+	double panelHeight;
+	double panelWidth;
+	int panelThickness;
+
+	int railCount;
+	int spliceBarCount;
+	int midClampCount;
+	int stopperSleeveCount;
+	int groundLugCount;
+	int attachmentCount;
+
+	int pitchedPanelCount;
+	int ballastedPanelCount;
+	int totalPanelCount;
+
+	int qCablePortrait;
+	int qCableLandscape;
+
+	ArrayList<PanelRow> panelRows;
+	BranchCircuitPlan branchPlan;
+	SolarEdgeDesign solarEdgeDesign;
+	MappedCatalog catalog;
+	Consumer<String> console = System.out::println;
+
+	int systemWattage;
+
+	String partsOrderLong;
+	String partsOrderShort;
 
 	static String errorMessage = "\n\n***************************************************************\n"
 			+ "Error:\nSolar orderding template csv not found. \nPerhaps you exported the "
 			+ "Numbers file to your downloads folder? \nMake sure to export it to the same folder as the Numbers file.\n"
 			+ "***************************************************************\n\n";
 
-	@SuppressWarnings("resource")
-	public static void main(String[] args) throws FileNotFoundException {
+	public SolarOrderingTool(String templateDir) {
+		if (!templateDir.endsWith("/"))
+			templateDir += "/";
+		this.templateDir = templateDir;
+		this.materialsToOrder = new PartsList(verbose);
+	}
+
+	public static void main(String[] args) {
 
 		if (args.length > 1) {
 			if (args[0].contains("no"))
@@ -104,57 +122,152 @@ public class SolarOrderingTool {
 				verbose = true;
 		}
 
-		// Import full parts list
+		SolarOrderingTool order = new SolarOrderingTool("Solar Ordering Template/");
+		OrderWriter out = new OrderWriter("Order_History/", 64);
+		order.printTo(out);
+		try {
+			order.catalog = MappedCatalog.openIfPublished();
+			order.generateReports(Template.load(order.templateDir), new OrderCache("Order_Cache/", 64, 1024));
+			order.displayPartsList(out);
+		} catch (TemplateException e) {
+			out.abort((e.missingFile ? errorMessage : "") + errorBox(e.getMessage()));
+		} catch (BranchCircuitException | PanelLayoutException | SolarEdgeSizingException e) {
+			out.abort(errorBox(e.getMessage()));
+		} catch (IOException e) {
+			out.abort(errorBox(MappedCatalog.DEFAULT_FILE + ": " + e.getMessage()));
+		} catch (RuntimeException e) {
+			// still written after everything queued, and the writer is stopped
+			out.abort(errorBox(e.toString()));
+		}
 		try {
-			csvArray = new Scanner(
-					new File("Solar Ordering Template/Ordering Template-Parts List.csv"))
-							.useDelimiter("//A").next().split(",|\n");
-		} catch (Exception e) {
-			System.out.println(errorMessage);
+			out.close();
+		} catch (IOException e) {
+			System.out.println(errorBox(e.getMessage()));
 			System.exit(1);
 		}
-		for (a = 0; a < csvArray.length; a++) {
-			csvArray[a] = csvArray[a].trim();
+	}
+
+	/**
+	 * Sends the warnings and verbose output printed while generating the
+	 * order through a writer instead of straight to System.out, so projects
+	 * generated in parallel don't contend for the console.
+	 */
+	public void printTo(OrderWriter out) {
+		console = out::println;
+		materialsToOrder.console = console;
+	}
+
+	/**
+	 * Loads the exported template csv files in the template directory and
+	 * adds every part needed for the project to the order list.
+	 *
+	 * @throws TemplateException if the template files are missing or invalid.
+	 */
+	public void generateOrder() throws TemplateException {
+		generateOrder(Template.load(templateDir));
+	}
+
+	/**
+	 * Fills in the short and costed parts order reports, reusing the reports
+	 * of an earlier run with the same inputs when the cache has them. The
+	 * cache is skipped in verbose mode so the part details are printed.
+	 *
+	 * @param template - the loaded and validated template files.
+	 * @param cache    - the order cache or null to always generate the order.
+	 */
+	public void generateReports(Template template, OrderCache cache) {
+		loadCustomerInfo(template);
+		if (catalog != null)
+			catalog = catalog.refresh();
+		String key = null;
+		if (cache != null && !verbose) {
+			key = OrderCache.key(template, catalog);
+			String[] cached = cache.get(key);
+			if (cached != null) {
+				partsOrderShort = cached[0];
+				partsOrderLong = cached[1];
+				return;
+			}
 		}
 
+		generateOrder(template);
+		partsOrderLong = materialsToOrder.partListReport(true, systemWattage);
+		partsOrderShort = materialsToOrder.partListReport(false, systemWattage);
+		if (key != null)
+			cache.put(key, partsOrderShort, partsOrderLong);
+	}
+
+	/**
+	 * Reads the customer header of the System Info table.
+	 */
+	public void loadCustomerInfo(Template template) {
+		customerName = template.systemInfo.cell(0, 1);
+		deliveryDate = template.systemInfo.cell(1, 1);
+		projectType = template.systemInfo.cell(2, 1);
+		address = template.systemInfo.cell(3, 1);
+	}
+
+	/**
+	 * Returns a row of the panel info table for the project's panel, or an
+	 * empty string if the panel is not listed.
+	 *
+	 * @param row - the row of the panel info table, e.g. 11 for power.
+	 */
+	private String panelInfo(Template template, int row) {
+		for (int col = 1; col < template.panelInfo.columns; col++)
+			if (!panelType.isEmpty() && template.panelInfo.cell(0, col).equalsIgnoreCase(panelType))
+				return template.panelInfo.cell(row, col);
+		return "";
+	}
+
+	/**
+	 * Adds every part needed for the project to the order list.
+	 *
+	 * @param template - the loaded and validated template files.
+	 */
+	public void generateOrder(Template template) {
+
+		// Import full parts list
+		csvArray = template.partsList.cells();
+
 		int colnum = 8;
 		for (int i = 2; i * colnum < csvArray.length; i++) {
 			int rowStart = i * 8;
-			if (!csvArray[rowStart].equals(""))
-				materialsToOrder.loadPart(new Part(csvArray[rowStart], csvArray[rowStart + 1],
+			if (!csvArray[rowStart].equals("")) {
+				Part part = new Part(csvArray[rowStart], csvArray[rowStart + 1],
 						Integer.parseInt(csvArray[rowStart + 2]),
 						Integer.parseInt(csvArray[rowStart + 3]),
 						Double.parseDouble(csvArray[rowStart + 4].replace("$", "")),
-						csvArray[rowStart + 6]));
+						csvArray[rowStart + 6]);
+				// the shared catalog has the current supplier price and package size
+				if (catalog != null)
+					catalog.apply(part);
+				materialsToOrder.loadPart(part);
+			}
 		}
 
 		if (verbose) {
-			System.out.println("\n\n Parts List:\n");
+			console.accept("\n\n Parts List:\n");
 			for (Part p : materialsToOrder.partList) {
-				System.out.println(p.getInfo());
+				console.accept(p.getInfo());
 			}
 		}
 
 		// Import project info + system type
-		csvArray = new Scanner(
-				new File("Solar Ordering Template/Ordering Template-System Info.csv"))
-						.useDelimiter("//A").next().split(",|\n");
+		csvArray = template.systemInfo.cells();
 		for (a = 8; a < csvArray.length; a++) {
 			csvArray[a] = csvArray[a].trim().toLowerCase();
 		}
 
-		a = 1;
-		customerName = csvArray[a];
-		deliveryDate = csvArray[a += 2];
-		projectType = csvArray[a += 2];
-		address = csvArray[a += 2];
-		a += 2;
+		loadCustomerInfo(template);
+		a = 9;
 		systemType = csvArray[a += 2];
 		panelType = csvArray[a += 2];
 		panelWattage = Integer.parseInt(csvArray[a += 2]);
 		panelLevelDeviceType = csvArray[a += 2];
 		inverterType = csvArray[a += 2];
-		inverterCount = Integer.parseInt(csvArray[a += 2]);
+		// blank when the inverters are left to SolarEdgeSizer
+		inverterCount = csvArray[a += 2].isEmpty() ? 0 : Integer.parseInt(csvArray[a]);
 		cellCount = Integer.parseInt(csvArray[a += 2]);
 		discoRating = Integer.parseInt(csvArray[a += 2]);
 		fuseRating = Integer.parseInt(csvArray[a += 2]);
@@ -164,17 +277,15 @@ public class SolarOrderingTool {
 		if (discoRating >= 60 && fuseRating < 60) fuseAdapter = true;
 
 		if (verbose) {
-			System.out.println("\n\nSystem Info:\n");
+			console.accept("\n\nSystem Info:\n");
 			for (int i = 0; i < csvArray.length; i += 2) {
-				System.out.println(csvArray[i] + " " + csvArray[i + 1]);
+				console.accept(csvArray[i] + " " + csvArray[i + 1]);
 			}
-			System.out.println("\n");
+			console.accept("\n");
 		}
 
 		// Load in pitched roof racking info
-		csvArray = new Scanner(
-				new File("Solar Ordering Template/Ordering Template-Rail Layout.csv"))
-						.useDelimiter("//A").next().split(",|\n");
+		csvArray = template.railLayout.cells();
 		for (a = 0; a < csvArray.length; a++) {
 			csvArray[a] = csvArray[a].trim().toLowerCase();
 		}
@@ -187,18 +298,8 @@ public class SolarOrderingTool {
 		panelWidth = Double.parseDouble((csvArray[a += 18].replace("\"", "")));
 		panelThickness = Integer.parseInt(((csvArray[a += 18].replace("mm", ""))));
 
-		qCablePortrait = Integer.parseInt(csvArray[196]);
-		if (qCablePortrait > 0)
-			qCablePortrait += 2;
-		qCableLandscape = Integer.parseInt(csvArray[538]);
-
-		if (qCableLandscape > 0)
-			qCableLandscape += 2;
-
 		// Load in pitched roof racking count's:
-		csvArray = new Scanner(
-				new File("Solar Ordering Template/Ordering Template-Rail Racking Count.csv"))
-						.useDelimiter("//A").next().split(",|\n");
+		csvArray = template.railCount.cells();
 		for (a = 0; a < csvArray.length; a++) {
 			csvArray[a] = csvArray[a].trim().toLowerCase();
 		}
@@ -214,17 +315,15 @@ public class SolarOrderingTool {
 			attachmentCount = attachmentOverride;
 
 		if (verbose) {
-			System.out.println("\n\nRail Parts Count:\n");
+			console.accept("\n\nRail Parts Count:\n");
 			for (int i = 4; i < csvArray.length; i += 4) {
-				System.out.println(csvArray[i + 1] + " - " + csvArray[i]);
+				console.accept(csvArray[i + 1] + " - " + csvArray[i]);
 			}
 		}
 
 		// Load in ballast layout boolean[][] ballastArray1 = new
 		// boolean[10][14];
-		csvArray = new Scanner(
-				new File("Solar Ordering Template/Ordering Template-Flat Layout.csv"))
-						.useDelimiter("//A").next().split(",|\n");
+		csvArray = template.flatLayout.cells();
 		for (a = 0; a < csvArray.length; a++) {
 			csvArray[a] = csvArray[a].trim().toLowerCase();
 		}
@@ -235,62 +334,54 @@ public class SolarOrderingTool {
 		b2Extra = Integer.parseInt(csvArray[158]);
 
 		if (verbose)
-			System.out.println("\n\nBallast layout 1:\n");
+			console.accept("\n\nBallast layout 1:\n");
 
-		boolean t = false;
 		for (int i = 0; i < 10; i++) {
+			String row = "";
 			for (int j = 0; j <= 13; j++) {
 				if (csvArray[(i + 1) * 14 + j].contains("true")) {
 					ballastLayout1[i][j] = true;
-					t = true;
 					ballastedPanelCount++; // counts ballast panels
 				} else
 					ballastLayout1[i][j] = false;
-				if (verbose)
-					System.out.print(ballastLayout1[i][j] + " ");
+				row += ballastLayout1[i][j] + " ";
 			}
 			if (verbose)
-				System.out.println("");
+				console.accept(row);
 		}
-		if (t)
-			qCableLandscape += 2;
-		t = false;
 
 		if (verbose)
-			System.out.println("\n\nBallast layout 2:\n");
+			console.accept("\n\nBallast layout 2:\n");
 
 		for (int i = 0; i < 10; i++) {
+			String row = "";
 			for (int j = 0; j <= 13; j++) {
 				if (csvArray[(i + 12) * 14 + j].contains("true")) {
 					ballastLayout2[i][j] = true;
-					t = true;
 					ballastedPanelCount++; // counts ballast panels
 				} else
 					ballastLayout2[i][j] = false;
-				if (verbose)
-					System.out.print(ballastLayout1[i][j] + " ");
+				row += ballastLayout2[i][j] + " ";
 			}
 			if (verbose)
-				System.out.println("");
+				console.accept(row);
 		}
 		if (verbose)
-			System.out.println("\n");
-
-		if (t)
-			qCableLandscape += 2;
-		qCableLandscape += ballastedPanelCount;
+			console.accept("\n");
 
 		totalPanelCount = pitchedPanelCount + ballastedPanelCount;
 		systemWattage = totalPanelCount * panelWattage;
 
-		int breakerCount;
-		if (panelLevelDeviceType.contains("+")) {
-			breakerCount = (int) Math.ceil((double) totalPanelCount / 13);
-		} else if (panelLevelDeviceType.toLowerCase().contains("x")) {
-			breakerCount = (int) Math.ceil((double) totalPanelCount / 12);
-		} else {
-			breakerCount = (int) Math.ceil((double) totalPanelCount / 16);
-		}
+		// Panel rows of every array, used to lay out the branch circuits
+		panelRows = PanelRow.fromRailLayout(template.railLayout);
+		int layoutPanelCount = 0;
+		for (PanelRow r : panelRows)
+			layoutPanelCount += r.length;
+		// a template without a drawn rail layout only has the panel count
+		if (layoutPanelCount == 0 && pitchedPanelCount > 0)
+			panelRows.add(new PanelRow("pitched", false, pitchedPanelCount - layoutPanelCount));
+		panelRows.addAll(PanelRow.fromBallastLayout("ballast 1", ballastLayout1));
+		panelRows.addAll(PanelRow.fromBallastLayout("ballast 2", ballastLayout2));
 
 		// ***** Add all the parts to the order list that we need to order ******
 		String category = "";
@@ -301,8 +392,18 @@ public class SolarOrderingTool {
 
 			if (systemType.equals("solaredge")) {
 				category = "solaredge";
-				materialsToOrder.addPart(category, inverterType, inverterCount);
-				materialsToOrder.addPart(category, panelLevelDeviceType, totalPanelCount);
+				// the optimizer comes from the panel info when the system info doesn't name one
+				String optimizer = panelLevelDeviceType;
+				if (!optimizer.matches("p\\d+.*") && !panelInfo(template, 12).isEmpty())
+					optimizer = panelInfo(template, 12).toLowerCase();
+
+				solarEdgeDesign = SolarEdgeSizer.size(totalPanelCount, panelWattage, materialsToOrder.partList,
+						inverterType, inverterCount);
+				if (verbose)
+					console.accept("\n\n" + solarEdgeDesign + "\n");
+				for (Map.Entry<Part, Integer> e : solarEdgeDesign.inverterCounts().entrySet())
+					materialsToOrder.addPart(category, e.getKey().simpleName, e.getValue());
+				materialsToOrder.addPart(category, optimizer, totalPanelCount);
 				materialsToOrder.addPart(category, "cell kit", cellCount);
 				if (consMonitor) {
 					materialsToOrder.addPart(category, "CT", 2);
@@ -311,32 +412,34 @@ public class SolarOrderingTool {
 			}
 			if (systemType.contains("enphase")) {
 				category = "enphase";
+				branchPlan = BranchCircuitSolver.solve(panelRows, totalPanelCount, panelLevelDeviceType, systemType);
+				CablingEngine.cable(branchPlan);
+				int breakerCount = branchPlan.breakerCount;
+				qCablePortrait = branchPlan.qCablePortrait;
+				qCableLandscape = branchPlan.qCableLandscape;
+				if (verbose)
+					console.accept("\n\n" + branchPlan + "\n");
 
 				materialsToOrder.addPart(category, panelLevelDeviceType, totalPanelCount);
 				materialsToOrder.addPart(category, "cell kit", cellCount);
 				materialsToOrder.addPart(category, "Qcable Portrait", qCablePortrait);
 				materialsToOrder.addPart(category, "Qcable Landscape", qCableLandscape);
-				materialsToOrder.addPart(category, "sealing cap",
-						qCablePortrait + qCableLandscape - totalPanelCount);
-				materialsToOrder.addPart(category, "terminator cap", breakerCount);
+				materialsToOrder.addPart(category, "sealing cap", branchPlan.sealingCaps);
+				materialsToOrder.addPart(category, "terminator cap", branchPlan.terminatorCaps);
 
 				if (systemType.contains("iq combiner")) {
 					materialsToOrder.addPart(category, "combiner", 1);
 					materialsToOrder.addPart(category, "iq solar breaker", breakerCount);
-					if(breakerCount > 4) System.out.print("\n*******\n\n Warning: IQ Combiner does not have capacity to land all 20A branch circuits. \n\n*******\n");
 				} if(systemType.contains("envoy")) {
 					materialsToOrder.addPart(category, "envoy", 1);
 					materialsToOrder.addPart("misc","envoy jbox",1);
-					if(breakerCount > 1) {
+					if (branchPlan.aggregator)
 						materialsToOrder.addPart(category, "aggregator", 1);
-						if (breakerCount > 3) System.out.print("\n*******\n\n Warning: Aggregator does not have capacity to land all 20A branch circuits. \n\n*******\n");
-					}
 				} if(systemType.contains("load center")) {
 					materialsToOrder.addPart(category, "envoy", 1);
 					materialsToOrder.addPart("misc","envoy jbox",1);
 					materialsToOrder.addPart("misc", "100A outdoor load center", 1);
 					materialsToOrder.addPart("misc", "load center breaker", breakerCount);
-					if (breakerCount > 5) System.out.print("\n*******\n\n Warning: Load center does not have capacity to land all 20A branch circuits. \n\n*******\n");
 				}
 				if (consMonitor)
 					materialsToOrder.addPart(category, "ct", 2);
@@ -410,43 +513,40 @@ public class SolarOrderingTool {
 					addEco5DParts(ballastLayout2, b2Extra);
 			}
 		}
-		displayPartsList();
 	}
 
-	private static void displayPartsList() throws FileNotFoundException {
+	public static String errorBox(String message) {
+		return "\n\n***************************************************************\n"
+				+ "Error:\n" + message + "\n"
+				+ "***************************************************************\n\n";
+	}
+
+	/**
+	 * Queues the order to be printed and saved to the order history.
+	 *
+	 * @param out - the writer the console output and reports go through.
+	 */
+	public void displayPartsList(OrderWriter out) {
 
 		String custInfo = formatCustomerInfo();
-		String partsOrderLong = materialsToOrder.partListReport(true, systemWattage);
-		String partsOrderShort = materialsToOrder.partListReport(false, systemWattage);
 
 		if (showExpectedCost)
-			System.out.println("\n\n" + custInfo + partsOrderLong);
+			out.println("\n\n" + custInfo + partsOrderLong);
 		else
-			System.out.println("\n\n" + custInfo + partsOrderShort);
+			out.println("\n\n" + custInfo + partsOrderShort);
 
 		DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss");
 		DateTimeFormatter dtfFileName = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
 		LocalDateTime now = LocalDateTime.now();
 
-		File file = new File("Order_History/");
-		if (!file.isDirectory()) {
-			file.mkdir();
-		}
-
-		String fileName = "Order_History/" + dtfFileName.format(now) + "_"
-				+ customerName.trim().replace(" ", "_") + ".txt";
-		PrintWriter out = new PrintWriter(fileName);
-		out.println("Solar Parts Order Generated on " + dtf.format(now) + "\n" + custInfo
-				+ partsOrderShort);
-		out.close();
-		out = new PrintWriter(fileName.replace(".txt", "_Cost.txt"));
-		out.println("Solar Parts Order Generated on " + dtf.format(now) + "\n" + custInfo
-				+ partsOrderLong);
-		out.close();
-
+		String header = "Solar Parts Order Generated on " + dtf.format(now) + "\n" + custInfo;
+		LinkedHashMap<String, String> files = new LinkedHashMap<String, String>();
+		files.put(".txt", header + partsOrderShort + System.lineSeparator());
+		files.put("_Cost.txt", header + partsOrderLong + System.lineSeparator());
+		out.write(dtfFileName.format(now) + "_" + customerName.trim().replace(" ", "_"), files);
 	}
 
-	private static String formatCustomerInfo() {
+	public String formatCustomerInfo() {
 		int spacing = 25;
 		return format("Project Name:", customerName, spacing) + "\n"
 				+ format("Lead Source:", projectType, spacing) + "\n"
@@ -464,7 +564,7 @@ public class SolarOrderingTool {
 		return a + s + b;
 	}
 
-	private static void addEco5DParts(boolean[][] layout, int extra) {
+	private void addEco5DParts(boolean[][] layout, int extra) {
 
 		String category = "EcoFoot5D";
 		int base = 0;
@@ -533,7 +633,7 @@ public class SolarOrderingTool {
 
 	}
 
-	private static void addEco2Parts(boolean[][] layout, int extra, String orientation) {
+	private void addEco2Parts(boolean[][] layout, int extra, String orientation) {
 
 		String category = "ecofoot2+";
 		int base = 0;
@@ -595,7 +695,7 @@ public class SolarOrderingTool {
 		materialsToOrder.addPart(category, "ground lug", groundLug);
 	}
 
-	public static void addDDomeParts(boolean[][] layout, int extraCount) {
+	public void addDDomeParts(boolean[][] layout, int extraCount) {
 
 		String category = "DDome";
 
@@ -0,0 +1,180 @@
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Represents the exported csv files of one ordering template. All files are
+ * read and validated at the same time and every problem found is reported
+ * together, so a bad cell is caught before any part logic runs.
+ *
+ * @author JackSteketee
+ *
+ */
+public class Template {
+
+	static final String PARTS_LIST = "Ordering Template-Parts List.csv";
+	static final String SYSTEM_INFO = "Ordering Template-System Info.csv";
+	static final String RAIL_LAYOUT = "Ordering Template-Rail Layout.csv";
+	static final String RAIL_COUNT = "Ordering Template-Rail Racking Count.csv";
+	static final String FLAT_LAYOUT = "Ordering Template-Flat Layout.csv";
+	static final String PANEL_INFO = "Panel Dimensions-Panel Info.csv";
+
+	String templateDir;
+	TemplateFile partsList;
+	TemplateFile systemInfo;
+	TemplateFile railLayout;
+	TemplateFile railCount;
+	TemplateFile flatLayout;
+	TemplateFile panelInfo;
+
+	private Template(String templateDir) {
+		this.templateDir = templateDir;
+	}
+
+	/**
+	 * Reads and validates every template file concurrently.
+	 *
+	 * @param templateDir - the directory the template was exported to.
+	 * @return the loaded template.
+	 * @throws TemplateException listing every problem found in every file.
+	 */
+	public static Template load(String templateDir) throws TemplateException {
+		if (!templateDir.endsWith("/"))
+			templateDir += "/";
+		final String dir = templateDir;
+		Template t = new Template(dir);
+
+		CompletableFuture<TemplateFile> partsList = CompletableFuture.supplyAsync(() -> loadPartsList(dir));
+		CompletableFuture<TemplateFile> systemInfo = CompletableFuture.supplyAsync(() -> loadSystemInfo(dir));
+		CompletableFuture<TemplateFile> railLayout = CompletableFuture.supplyAsync(() -> loadRailLayout(dir));
+		CompletableFuture<TemplateFile> railCount = CompletableFuture.supplyAsync(() -> loadRailCount(dir));
+		CompletableFuture<TemplateFile> flatLayout = CompletableFuture.supplyAsync(() -> loadFlatLayout(dir));
+		CompletableFuture<TemplateFile> panelInfo = CompletableFuture.supplyAsync(() -> loadPanelInfo(dir));
+		CompletableFuture.allOf(partsList, systemInfo, railLayout, railCount, flatLayout, panelInfo).join();
+
+		t.partsList = partsList.join();
+		t.systemInfo = systemInfo.join();
+		t.railLayout = railLayout.join();
+		t.railCount = railCount.join();
+		t.flatLayout = flatLayout.join();
+		t.panelInfo = panelInfo.join();
+
+		ArrayList<String> errors = new ArrayList<String>();
+		boolean missingFile = false;
+		for (TemplateFile f : t.files()) {
+			errors.addAll(f.errors);
+			missingFile |= f.missing;
+		}
+		if (!errors.isEmpty())
+			throw new TemplateException(errors, missingFile);
+		return t;
+	}
+
+	public TemplateFile[] files() {
+		return new TemplateFile[] { partsList, systemInfo, railLayout, railCount, flatLayout, panelInfo };
+	}
+
+	private static TemplateFile loadPartsList(String dir) {
+		TemplateFile f = new TemplateFile(dir, PARTS_LIST, 8, 3);
+		if (f.missing)
+			return f;
+		f.requireLabel(0, 0, "Category");
+		for (int i = 2; i < f.rows.size(); i++) {
+			if (f.cell(i, 0).isEmpty())
+				continue;
+			f.requireInt(i, 2, "");
+			f.requireInt(i, 3, "");
+			f.requireNumber(i, 4, "$");
+		}
+		return f;
+	}
+
+	private static TemplateFile loadSystemInfo(String dir) {
+		TemplateFile f = new TemplateFile(dir, SYSTEM_INFO, 2, 15);
+		if (f.missing)
+			return f;
+		String[] labels = { "Customer", "Estimated Delivery", "Project Type", "Address", "", "System Type",
+				"Panel Type", "Panel Wattage", "Opti/Micro Type", "Central Inverter Type", "SE Inverter Count",
+				"Cell Kit Count", "Disco Rating", "Fuse Rating", "Cons. Monitoring" };
+		for (int i = 0; i < labels.length; i++)
+			f.requireLabel(i, 0, labels[i]);
+		f.requireInt(7, 1, "");
+		f.requireIntOrBlank(10, 1);
+		f.requireInt(11, 1, "");
+		f.requireInt(12, 1, "");
+		f.requireInt(13, 1, "");
+		return f;
+	}
+
+	private static TemplateFile loadRailLayout(String dir) {
+		TemplateFile f = new TemplateFile(dir, RAIL_LAYOUT, 18, 47);
+		if (f.missing)
+			return f;
+		f.requireLabel(0, 0, "Attachment Type");
+		f.requireLabel(1, 0, "Tilt Leg");
+		f.requireLabel(2, 0, "Attatch Count");
+		f.requireLabel(3, 0, "Panel Height");
+		f.requireLabel(4, 0, "Panel Width");
+		f.requireLabel(5, 0, "Panel Thickness");
+		f.requireLabel(9, 0, "Portrait");
+		f.requireLabel(10, 0, "Row Length");
+		f.requireLabel(28, 0, "Landscape");
+		f.requireLabel(29, 0, "Row Length");
+		f.requireInt(1, 1, "\"");
+		f.requireInt(2, 1, "");
+		f.requireNumber(3, 1, "\"");
+		f.requireNumber(4, 1, "\"");
+		f.requireInt(5, 1, "mm");
+		f.requireLabel(26, 0, "Row Count");
+		f.requireLabel(46, 0, "Row Count");
+		for (int col = 1; col <= 15; col++) {
+			f.requireInt(10, col, "");
+			f.requireInt(29, col, "");
+			f.requireIntOrBlank(26, col);
+			f.requireIntOrBlank(46, col);
+		}
+		return f;
+	}
+
+	private static TemplateFile loadRailCount(String dir) {
+		TemplateFile f = new TemplateFile(dir, RAIL_COUNT, 4, 8);
+		if (f.missing)
+			return f;
+		String[] labels = { "Panels", "Rail", "Splice", "UFO", "Stopper", "Ground Lug", "Attachments" };
+		for (int i = 0; i < labels.length; i++) {
+			f.requireLabel(i + 1, 0, labels[i]);
+			f.requireInt(i + 1, 3, "");
+		}
+		return f;
+	}
+
+	private static TemplateFile loadFlatLayout(String dir) {
+		TemplateFile f = new TemplateFile(dir, FLAT_LAYOUT, 14, 22);
+		if (f.missing)
+			return f;
+		f.requireLabel(0, 3, "Extra");
+		f.requireInt(0, 4, "");
+		f.requireLabel(11, 3, "Extra");
+		f.requireInt(11, 4, "");
+		for (int i = 0; i < 10; i++) {
+			for (int j = 0; j < 14; j++) {
+				f.requireBoolean(i + 1, j);
+				f.requireBoolean(i + 12, j);
+			}
+		}
+		return f;
+	}
+
+	private static TemplateFile loadPanelInfo(String dir) {
+		TemplateFile f = new TemplateFile(dir, PANEL_INFO, 26, 14);
+		if (f.missing)
+			return f;
+		f.requireLabel(0, 0, "Panels Name");
+		f.requireLabel(11, 0, "Power");
+		f.requireLabel(12, 0, "Optimizer");
+		f.requireLabel(13, 0, "MicroInverter");
+		for (int col = 1; col < 26; col++)
+			if (!f.cell(0, col).isEmpty())
+				f.requireInt(11, col, "");
+		return f;
+	}
+}
@@ -0,0 +1,23 @@
+import java.util.ArrayList;
+
+/**
+ * Thrown when the exported template csv files are missing or contain cells
+ * that can not be read. Holds every problem found so they can all be fixed
+ * in one pass.
+ *
+ * @author JackSteketee
+ *
+ */
+public class TemplateException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	ArrayList<String> errors;
+	boolean missingFile;
+
+	public TemplateException(ArrayList<String> errors, boolean missingFile) {
+		super(errors.size() + " problem(s) found in the ordering template:\n" + String.join("\n", errors));
+		this.errors = errors;
+		this.missingFile = missingFile;
+	}
+}
@@ -0,0 +1,145 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+
+/**
+ * Represents one exported csv file of the ordering template. Cells are
+ * trimmed and kept in rows so that problems can be reported with the file,
+ * row and column they were found in. Rows and columns are zero based in code
+ * and reported one based to match the spreadsheet.
+ *
+ * @author JackSteketee
+ *
+ */
+public class TemplateFile {
+
+	String path;
+	String name;
+	int columns;
+	ArrayList<String[]> rows = new ArrayList<String[]>();
+	ArrayList<String> errors = new ArrayList<String>();
+	boolean missing = false;
+
+	/**
+	 * Reads a csv file and checks that every row has the expected number of
+	 * columns and that the file has at least the required number of rows.
+	 *
+	 * @param templateDir - the directory the template was exported to.
+	 * @param name        - the file name of the exported table.
+	 * @param columns     - the number of columns every row must have.
+	 * @param minRows     - the number of rows the table must have.
+	 */
+	public TemplateFile(String templateDir, String name, int columns, int minRows) {
+		this.path = templateDir + name;
+		this.name = name;
+		this.columns = columns;
+
+		String content;
+		try {
+			content = new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			missing = true;
+			errors.add(path + ": file not found");
+			return;
+		}
+
+		String[] lines = content.split("\r?\n");
+		int lineCount = lines.length;
+		while (lineCount > 0 && lines[lineCount - 1].trim().isEmpty())
+			lineCount--;
+
+		for (int i = 0; i < lineCount; i++) {
+			String[] cells = lines[i].split(",", -1);
+			for (int j = 0; j < cells.length; j++)
+				cells[j] = cells[j].trim();
+			if (cells.length != columns)
+				error(i, cells.length - 1, "expected " + columns + " columns but found " + cells.length);
+			rows.add(cells);
+		}
+		if (rows.size() < minRows)
+			errors.add(path + ": expected at least " + minRows + " rows but found " + rows.size());
+	}
+
+	/**
+	 * Returns every cell of the table in a single array, row after row. This
+	 * matches the indexing of the original csv parsing where a cell is found
+	 * at row * columns + column.
+	 */
+	public String[] cells() {
+		String[] cells = new String[rows.size() * columns];
+		for (int i = 0; i < rows.size(); i++)
+			for (int j = 0; j < columns; j++)
+				cells[i * columns + j] = j < rows.get(i).length ? rows.get(i)[j] : "";
+		return cells;
+	}
+
+	public String cell(int row, int col) {
+		if (row >= rows.size() || col >= rows.get(row).length)
+			return "";
+		return rows.get(row)[col];
+	}
+
+	public void error(int row, int col, String message) {
+		errors.add(path + " row " + (row + 1) + ", column " + (col + 1) + ": " + message);
+	}
+
+	/**
+	 * Records an error if a cell is not a whole number once the given unit
+	 * suffix has been removed.
+	 */
+	public void requireInt(int row, int col, String unit) {
+		if (row >= rows.size())
+			return;
+		String s = cell(row, col).replace(unit, "").trim();
+		try {
+			Integer.parseInt(s);
+		} catch (NumberFormatException e) {
+			error(row, col, "\"" + cell(row, col) + "\" is not a whole number");
+		}
+	}
+
+	/**
+	 * Records an error if a cell is not a number once the given unit suffix
+	 * has been removed.
+	 */
+	public void requireNumber(int row, int col, String unit) {
+		if (row >= rows.size())
+			return;
+		String s = cell(row, col).replace(unit, "").trim();
+		try {
+			Double.parseDouble(s);
+		} catch (NumberFormatException e) {
+			error(row, col, "\"" + cell(row, col) + "\" is not a number");
+		}
+	}
+
+	/**
+	 * Records an error if a cell is neither blank nor a whole number. Used
+	 * for count cells that the spreadsheet leaves empty when zero.
+	 */
+	public void requireIntOrBlank(int row, int col) {
+		if (!cell(row, col).isEmpty())
+			requireInt(row, col, "");
+	}
+
+	public void requireBoolean(int row, int col) {
+		if (row >= rows.size())
+			return;
+		String s = cell(row, col);
+		if (!s.equalsIgnoreCase("true") && !s.equalsIgnoreCase("false"))
+			error(row, col, "\"" + s + "\" is not TRUE or FALSE");
+	}
+
+	/**
+	 * Records an error if a cell does not start with the expected label. Used
+	 * to catch rows that were moved or deleted in the spreadsheet.
+	 */
+	public void requireLabel(int row, int col, String label) {
+		if (row >= rows.size())
+			return;
+		if (!cell(row, col).toLowerCase().startsWith(label.toLowerCase()))
+			error(row, col, "expected \"" + label + "\" but found \"" + cell(row, col) + "\"");
+	}
+}